@@ -0,0 +1,46 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.api;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A marshalling context that writes into a byte buffer. The marshalled bytes
+ * can be accessed without copying them into a new array.
+ */
+public interface ByteBufferMarshallingContext extends MarshallingContext {
+
+	/**
+	 * Yields the bytes marshalled so far into this context, as a read-only view
+	 * of the buffer of this context. No bytes are copied. The view starts at position 0
+	 * and its limit is the number of bytes marshalled so far. Bytes marshalled later might
+	 * not be visible through the view.
+	 * 
+	 * @return the view
+	 */
+	ByteBuffer toByteBuffer();
+
+	/**
+	 * Yields the bytes marshalled so far into this context, as an array.
+	 * This is the array backing the buffer of this context, without any copy,
+	 * if the buffer is on the heap and exactly filled with the marshalled bytes.
+	 * Otherwise, the marshalled bytes are copied into a new array.
+	 * 
+	 * @return the bytes
+	 */
+	byte[] toByteArray();
+}
@@ -0,0 +1,45 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.api;
+
+/**
+ * An unmarshalling context that reads from a byte buffer, such as an array
+ * of bytes or a region of a file mapped in memory. It allows one to move to
+ * arbitrary positions of the buffer, without reading the bytes in front of them.
+ * Positions are relative to the first byte that the context can read.
+ */
+public interface ByteBufferUnmarshallingContext extends UnmarshallingContext {
+
+	/**
+	 * Yields the position of the next byte read from this context.
+	 * 
+	 * @return the position, relative to the first byte that this context can read
+	 */
+	int position();
+
+	/**
+	 * Moves to the given position, so that the next byte read from this context
+	 * is that at the given position. Note that strings read through
+	 * {@link #readStringShared()} after the new position might refer to strings
+	 * read before, which must have been read already from this context.
+	 * 
+	 * @param position the new position, relative to the first byte that this context can read
+	 * @throws IllegalArgumentException if {@code position} is negative or beyond the bytes
+	 *                                  that this context can read
+	 */
+	void seek(int position);
+}
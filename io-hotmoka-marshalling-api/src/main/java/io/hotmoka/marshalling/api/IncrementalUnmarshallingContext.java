@@ -0,0 +1,80 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.api;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * An unmarshalling context that is fed with chunks of bytes as they arrive, for instance
+ * from a non-blocking channel, and never blocks waiting for more bytes. Objects are read
+ * through {@link #tryRead(Unmarshaller)} and {@link #tryReadObject(Class)}, that either
+ * complete or report that more bytes are needed. In the latter case, the bytes and the
+ * shared strings of the incomplete object are given back to the context, so that the object
+ * can be read again, from its start, after more bytes have been fed. The objects already read
+ * are never decoded again and their bytes are eventually discarded. The unmarshallers passed
+ * to the try methods must read their objects completely before returning, hence they cannot use the lazy
+ * {@link #readLengthAndStream(Unmarshaller, Skipper)}, nor {@link #readAllBytes()}, since the end
+ * of the bytes of this context is not known. The other read methods of this context can also be called
+ * between the try methods, but only for bytes known to have been fed already, for instance after checking
+ * {@link #available()}: they are not attempted again and, if they go beyond the bytes fed so far,
+ * they throw an {@link IOException} and leave this context at an unspecified position.
+ * The bytes they read are consumed and get discarded as those of the objects read by the try methods.
+ */
+public interface IncrementalUnmarshallingContext extends UnmarshallingContext {
+
+	/**
+	 * Feeds this context with the given chunk of bytes, from its current position
+	 * up to its limit. The bytes are copied, hence the chunk can be reused after this call,
+	 * and the position of the chunk is moved to its limit.
+	 * 
+	 * @param chunk the chunk of bytes
+	 */
+	void feed(ByteBuffer chunk);
+
+	/**
+	 * Yields a lower bound of the number of bytes that must still be fed to this context
+	 * before the object whose reading has been last attempted can be read. Until then,
+	 * the try methods return {@code null} immediately, without attempting the reading again.
+	 * 
+	 * @return the lower bound, or 0 if a reading can be attempted
+	 */
+	long missingBytes();
+
+	/**
+	 * Attempts to read a marshallable, if enough bytes have been fed to this context.
+	 * 
+	 * @param <T> the type of the marshallable
+	 * @param unmarshaller the unmarshaller of the marshallable, that must not yield {@code null}
+	 * @return the marshallable, or {@code null} if more bytes must be fed to this context before
+	 *         it can be read, in which case no byte has been consumed
+	 * @throws IOException if the marshallable cannot be unmarshalled, regardless of the bytes fed later
+	 */
+	<T extends Marshallable> T tryRead(Unmarshaller<T> unmarshaller) throws IOException;
+
+	/**
+	 * Attempts to read an object, through the object unmarshaller for its class,
+	 * if enough bytes have been fed to this context.
+	 * 
+	 * @param <C> the type of the object
+	 * @param clazz the class of the object
+	 * @return the object, or {@code null} if more bytes must be fed to this context before
+	 *         it can be read, in which case no byte has been consumed
+	 * @throws IOException if the object cannot be unmarshalled, regardless of the bytes fed later
+	 */
+	<C> C tryReadObject(Class<C> clazz) throws IOException;
+}
@@ -0,0 +1,76 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.api;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * An array of marshallables extracted from an unmarshalling context, assuming that
+ * it has been saved with {@link MarshallingContext#writeIndexedArray(Marshallable[])}.
+ * Its elements are unmarshalled on demand, independently from each other, hence
+ * in any order, also concurrently. Each element is unmarshalled from an auxiliary context
+ * with the same format, string cache and object unmarshallers as the context
+ * where the array was read.
+ */
+public interface IndexedArray {
+
+	/**
+	 * Yields the number of elements of this array.
+	 * 
+	 * @return the number of elements
+	 */
+	int length();
+
+	/**
+	 * Unmarshals the element of this array at the given index, in constant time
+	 * with respect to the length of this array.
+	 * 
+	 * @param <T> the type of the element
+	 * @param index the index of the element
+	 * @param unmarshaller the object that unmarshals the element
+	 * @return the element
+	 * @throws IOException if the element cannot be unmarshalled or if it does not span exactly its bytes
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or not smaller than {@link #length()}
+	 */
+	<T extends Marshallable> T get(int index, Unmarshaller<T> unmarshaller) throws IOException;
+
+	/**
+	 * Unmarshals all elements of this array, in order.
+	 * 
+	 * @param <T> the type of the elements
+	 * @param unmarshaller the object that unmarshals a single element
+	 * @param supplier the creator of the resulting array, given its length
+	 * @return the array of the elements
+	 * @throws IOException if some element cannot be unmarshalled or if it does not span exactly its bytes
+	 */
+	<T extends Marshallable> T[] toArray(Unmarshaller<T> unmarshaller, Function<Integer, T[]> supplier) throws IOException;
+
+	/**
+	 * Unmarshals all elements of this array, concurrently in the given pool.
+	 * 
+	 * @param <T> the type of the elements
+	 * @param unmarshaller the object that unmarshals a single element; it must be
+	 *                     safe to call it concurrently
+	 * @param supplier the creator of the resulting array, given its length
+	 * @param pool the pool where the elements are unmarshalled
+	 * @return the array of the elements
+	 * @throws IOException if some element cannot be unmarshalled or if it does not span exactly its bytes
+	 */
+	<T extends Marshallable> T[] toArray(Unmarshaller<T> unmarshaller, Function<Integer, T[]> supplier, ForkJoinPool pool) throws IOException;
+}
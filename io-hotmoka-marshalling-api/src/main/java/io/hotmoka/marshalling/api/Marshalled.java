@@ -0,0 +1,38 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record whose marshalling code must be generated at compilation time
+ * by the annotation processor of the {@code io.hotmoka.marshalling.processor} module.
+ * For a record {@code R}, the processor generates a class {@code RMarshallers}
+ * in the same package, with static methods that marshal and unmarshal the components
+ * of {@code R}, in order of declaration, and with an object marshaller and an
+ * object unmarshaller that call them. The encoding of each component depends on
+ * its type and on its {@link Compact} and {@link Shared} annotations.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Marshalled {
+}
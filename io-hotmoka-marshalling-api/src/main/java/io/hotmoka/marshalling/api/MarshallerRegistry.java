@@ -0,0 +1,108 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.api;
+
+/**
+ * An immutable registry of object marshallers and unmarshallers, and of the type tags
+ * of the classes of polymorphic objects. A registry is built once
+ * and can then be shared by many marshalling and unmarshalling contexts, also running
+ * in distinct threads, without being copied into each of them.
+ */
+public interface MarshallerRegistry {
+
+	/**
+	 * Yields the object marshaller registered for the given class.
+	 * 
+	 * @param <C> the type of the class
+	 * @param clazz the class
+	 * @return the object marshaller, or {@code null} if none is registered for {@code clazz}
+	 */
+	<C> ObjectMarshaller<C> getMarshaller(Class<C> clazz);
+
+	/**
+	 * Yields the object unmarshaller registered for the given class.
+	 * 
+	 * @param <C> the type of the class
+	 * @param clazz the class
+	 * @return the object unmarshaller, or {@code null} if none is registered for {@code clazz}
+	 */
+	<C> ObjectUnmarshaller<C> getUnmarshaller(Class<C> clazz);
+
+	/**
+	 * Yields the type tag registered for the given class.
+	 * 
+	 * @param clazz the class
+	 * @return the type tag, or -1 if none is registered for {@code clazz}
+	 */
+	int getTag(Class<?> clazz);
+
+	/**
+	 * Yields the class with the given type tag in this registry.
+	 *
+	 * @param tag the type tag
+	 * @return the class, or {@code null} if no class has type tag {@code tag}
+	 */
+	Class<?> getTaggedClass(int tag);
+
+	/**
+	 * Yields the object unmarshaller registered for the class with the given type tag.
+	 * 
+	 * @param tag the type tag
+	 * @return the object unmarshaller, or {@code null} if no class has type tag {@code tag}
+	 *         or no object unmarshaller is registered for that class
+	 */
+	ObjectUnmarshaller<?> getUnmarshaller(int tag);
+
+	/**
+	 * Yields a registry that is like this one, but for the given object marshaller,
+	 * that replaces the one for the same class, if any. This registry is not modified.
+	 * 
+	 * @param marshaller the object marshaller
+	 * @return the resulting registry
+	 */
+	MarshallerRegistry withMarshaller(ObjectMarshaller<?> marshaller);
+
+	/**
+	 * Yields a registry that is like this one, but for the given object unmarshaller,
+	 * that replaces the one for the same class, if any. This registry is not modified.
+	 * 
+	 * @param unmarshaller the object unmarshaller
+	 * @return the resulting registry
+	 */
+	MarshallerRegistry withUnmarshaller(ObjectUnmarshaller<?> unmarshaller);
+
+	/**
+	 * Yields a registry that is like this one, but where the given class has the given type tag.
+	 * Type tags identify the class of the objects written by
+	 * {@link MarshallingContext#writeTaggedObject(Object)}. They should be small and dense,
+	 * since they are written in compact form and objects are unmarshalled by looking
+	 * up an array indexed by type tag. This registry is not modified.
+	 * 
+	 * @param clazz the class
+	 * @param tag the type tag
+	 * @return the resulting registry
+	 * @throws IllegalArgumentException if {@code tag} is negative or larger than {@link #MAX_TAG},
+	 *                                  or if {@code clazz} or {@code tag} are already registered
+	 *                                  with a distinct type tag or class, respectively
+	 */
+	MarshallerRegistry withTag(Class<?> clazz, int tag);
+
+	/**
+	 * The largest type tag.
+	 */
+	int MAX_TAG = 65535;
+}
@@ -18,12 +18,36 @@ package io.hotmoka.marshalling.api;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A context used during object marshaling into bytes.
  */
 public interface MarshallingContext extends AutoCloseable {
 
+	/**
+	 * Sets the format of the bytes written from now on by this context.
+	 * 
+	 * @param format the format
+	 */
+	void setFormat(MarshallingFormat format);
+
+	/**
+	 * Yields the format of the bytes written by this context. By default, this is {@link MarshallingFormat#V1}.
+	 * 
+	 * @return the format
+	 */
+	MarshallingFormat getFormat();
+
+	/**
+	 * Sets the registry of the object marshallers used by {@link #writeObject(Class, Object)}.
+	 * The registry is referenced, not copied, hence the same registry can be used
+	 * by many contexts, at no cost.
+	 * 
+	 * @param registry the registry
+	 */
+	void setMarshallerRegistry(MarshallerRegistry registry);
+
 	/**
 	 * Writes the given object into this context, which must have
 	 * an object marshaller registered for the class of the object.
@@ -35,6 +59,18 @@ public interface MarshallingContext extends AutoCloseable {
 	 */
 	<C> void writeObject(Class<C> clazz, C value) throws IOException;
 
+	/**
+	 * Writes the given object into this context, preceded by the type tag of its class,
+	 * so that it can be read back with {@link UnmarshallingContext#readTaggedObject(Class)}
+	 * without knowing its class in advance. The registry of this context must
+	 * provide a type tag and an object marshaller for the exact class of the object.
+	 * 
+	 * @param value the object
+	 * @throws IOException if an I/O error occurs or if the class of {@code value} has no
+	 *                     type tag or no object marshaller
+	 */
+	void writeTaggedObject(Object value) throws IOException;
+
 	/**
 	 * Writes the given byte into this context. Only the 8 least significant bits
 	 * of {@code b} are written.
@@ -66,6 +102,7 @@ public interface MarshallingContext extends AutoCloseable {
 	 * Writes the given integer into this context, using compact representations for
 	 * frequent cases. This requires that the integer
 	 * will be subsequently read through {@link UnmarshallingContext#readCompactInt()}.
+	 * The representation depends on the format of this context.
 	 * 
 	 * @param i the integer to write
 	 * @throws IOException if an I/O error occurs
@@ -122,6 +159,90 @@ public interface MarshallingContext extends AutoCloseable {
 	 */
 	void writeLengthAndArray(Marshallable[] marshallables) throws IOException;
 
+	/**
+	 * Writes the length of the given array of marshallables and its elements
+	 * into this context, exactly as {@link #writeLengthAndArray(Marshallable[])} would do,
+	 * but marshals slices of the array concurrently in the given pool, into buffers
+	 * that are then copied into this context, in order. The slices are marshalled into
+	 * auxiliary contexts with the same format and object marshallers as this context.
+	 * Hence the elements must marshal themselves only through the methods of the context
+	 * they receive, without relying on its identity, and they must be safe to marshal concurrently.
+	 * If the elements share new strings, the slices following the first that does are
+	 * marshalled twice, hence this method is most effective when the elements share no string
+	 * or only strings already shared in this context before the call.
+	 * 
+	 * @param marshallables the array of marshallables
+	 * @param pool the pool where the slices of the array are marshalled
+	 * @throws IOException if some elements could not be marshalled
+	 */
+	void writeLengthAndArray(Marshallable[] marshallables, ForkJoinPool pool) throws IOException;
+
+	/**
+	 * Writes the given array of marshallables into this context, preceded by a table
+	 * of the offsets of its elements. Each element is marshalled as if it were alone in
+	 * a new context, with the same format and object marshallers as this context: hence
+	 * it can only share strings with itself. Consequently, the array can be read back with
+	 * {@link UnmarshallingContext#readIndexedArray()}, whose elements can be unmarshalled
+	 * by index, in constant time, and concurrently.
+	 * 
+	 * @param marshallables the array of marshallables
+	 * @throws IOException if some elements could not be marshalled
+	 */
+	void writeIndexedArray(Marshallable[] marshallables) throws IOException;
+
+	/**
+	 * Writes the given array of marshallables into this context, exactly as
+	 * {@link #writeIndexedArray(Marshallable[])} would do, but marshals slices of the
+	 * array concurrently in the given pool. The elements must marshal themselves only
+	 * through the methods of the context they receive, without relying on its identity,
+	 * and they must be safe to marshal concurrently.
+	 * 
+	 * @param marshallables the array of marshallables
+	 * @param pool the pool where the slices of the array are marshalled
+	 * @throws IOException if some elements could not be marshalled
+	 */
+	void writeIndexedArray(Marshallable[] marshallables, ForkJoinPool pool) throws IOException;
+
+	/**
+	 * Writes the length of the given array of longs and its elements into this context,
+	 * in big-endian order. It is assumed that the array will be read back with
+	 * {@link UnmarshallingContext#readLongArray()}. Large arrays are written in bulk.
+	 * 
+	 * @param values the array
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeLongArray(long[] values) throws IOException;
+
+	/**
+	 * Writes the length of the given array of integers and its elements into this context,
+	 * in big-endian order. It is assumed that the array will be read back with
+	 * {@link UnmarshallingContext#readIntArray()}. Large arrays are written in bulk.
+	 * 
+	 * @param values the array
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeIntArray(int[] values) throws IOException;
+
+	/**
+	 * Writes the length of the given array of shorts and its elements into this context,
+	 * in big-endian order. It is assumed that the array will be read back with
+	 * {@link UnmarshallingContext#readShortArray()}. Large arrays are written in bulk.
+	 * 
+	 * @param values the array
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeShortArray(short[] values) throws IOException;
+
+	/**
+	 * Writes the length of the given array of doubles and its elements into this context,
+	 * in big-endian order. It is assumed that the array will be read back with
+	 * {@link UnmarshallingContext#readDoubleArray()}. Large arrays are written in bulk.
+	 * 
+	 * @param values the array
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeDoubleArray(double[] values) throws IOException;
+
 	/**
 	 * Writes the given double into this context.
 	 * 
@@ -150,6 +271,7 @@ public interface MarshallingContext extends AutoCloseable {
 	 * Writes the given long into this context, using compact representations for
 	 * frequent cases. This requires that the long
 	 * will be subsequently read through {@link UnmarshallingContext#readCompactLong()}.
+	 * The representation depends on the format of this context.
 	 * 
 	 * @param l the long to write
 	 * @throws IOException if an I/O error occurs
@@ -174,6 +296,8 @@ public interface MarshallingContext extends AutoCloseable {
 
 	/**
 	 * Writes the given big integer into this context, in a compact way.
+	 * The representation of big integers that do not fit into a long depends
+	 * on the format of this context.
 	 * 
 	 * @param bi the big integer to write
 	 * @throws IOException if an I/O error occurs
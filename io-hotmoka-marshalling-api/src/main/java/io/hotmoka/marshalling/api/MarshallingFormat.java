@@ -0,0 +1,46 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.api;
+
+/**
+ * The versions of the format of the marshalled bytes. An unmarshalling context
+ * must use the same format used by the marshalling context that wrote its bytes.
+ */
+public enum MarshallingFormat {
+
+	/**
+	 * The original format, where big integers that do not fit into a long
+	 * are written as the characters of their decimal representation.
+	 * This is the default, so that previously marshalled bytes can still be unmarshalled.
+	 */
+	V1,
+
+	/**
+	 * Like {@link #V1}, but big integers that do not fit into a long are written
+	 * as the bytes of their two's-complement representation, which is shorter
+	 * and faster to marshal and unmarshal.
+	 */
+	V2,
+
+	/**
+	 * Like {@link #V2}, but compact integers are written as unsigned LEB128 variable-length
+	 * integers and compact longs as zig-zag LEB128 variable-length integers: seven bits per byte,
+	 * with the most significant bit of each byte set if and only if more bytes follow.
+	 * This is shorter than {@link #V2} for medium values and for negative longs.
+	 */
+	V3
+}
@@ -0,0 +1,59 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.api;
+
+/**
+ * A bounded cache of strings, that can be shared among unmarshalling contexts,
+ * also running in distinct threads. Equal strings unmarshalled through a context
+ * that uses the cache are represented by the same instance, as long as that instance
+ * remains in the cache. This avoids keeping many copies of frequent strings in memory.
+ */
+public interface StringCache {
+
+	/**
+	 * Yields the string whose UTF-8 encoding is in the given portion of an array of bytes.
+	 * The string is taken from this cache if possible. Otherwise, it is created and
+	 * possibly added to this cache.
+	 * 
+	 * @param bytes the array of bytes
+	 * @param offset the offset of the first byte of the encoding
+	 * @param length the number of bytes of the encoding
+	 * @return the string
+	 */
+	String decode(byte[] bytes, int offset, int length);
+
+	/**
+	 * Yields the number of strings found in this cache so far.
+	 * 
+	 * @return the number of strings found in this cache
+	 */
+	long hits();
+
+	/**
+	 * Yields the number of strings not found in this cache so far.
+	 * 
+	 * @return the number of strings not found in this cache
+	 */
+	long misses();
+
+	/**
+	 * Yields the ratio of the strings found in this cache so far, over the strings looked up so far.
+	 * 
+	 * @return the ratio, between 0 and 1; this is 0 if no string has been looked up so far
+	 */
+	double hitRate();
+}
@@ -18,13 +18,47 @@ package io.hotmoka.marshalling.api;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * A context used during bytes unmarshalling into objects.
  */
 public interface UnmarshallingContext extends AutoCloseable {
 
+	/**
+	 * Sets the format of the bytes read from now on by this context.
+	 * 
+	 * @param format the format
+	 */
+	void setFormat(MarshallingFormat format);
+
+	/**
+	 * Yields the format of the bytes read by this context. By default, this is {@link MarshallingFormat#V1}.
+	 * 
+	 * @return the format
+	 */
+	MarshallingFormat getFormat();
+
+	/**
+	 * Sets the registry of the object unmarshallers used by {@link #readObject(Class)}.
+	 * The registry is referenced, not copied, hence the same registry can be used
+	 * by many contexts, at no cost.
+	 * 
+	 * @param registry the registry
+	 */
+	void setMarshallerRegistry(MarshallerRegistry registry);
+
+	/**
+	 * Sets the cache used to decode the strings read by {@link #readStringShared()}
+	 * and {@link #readStringUnshared()}. The same cache can be used by many contexts,
+	 * so that equal strings read by distinct contexts are represented by the same instance.
+	 * 
+	 * @param cache the cache; this is {@code null} if no cache must be used, which is the default
+	 */
+	void setStringCache(StringCache cache);
+
 	/**
 	 * Yields the number of bytes that can be read without blocking.
 	 * 
@@ -44,6 +78,20 @@ public interface UnmarshallingContext extends AutoCloseable {
 	 */
 	<C> C readObject(Class<C> clazz) throws IOException;
 
+	/**
+	 * Extracts an object from this context, assuming that it has been saved with
+	 * {@link MarshallingContext#writeTaggedObject(Object)}. The object is unmarshalled
+	 * by the object unmarshaller registered for the class with the type tag read from this context.
+	 * 
+	 * @param <C> the type of the object
+	 * @param supertype a supertype of the class of the object
+	 * @return the unmarshalled object
+	 * @throws IOException if an I/O error occurs, if no object unmarshaller is registered
+	 *                     for the type tag read from this context or if the object is not
+	 *                     an instance of {@code supertype}
+	 */
+	<C> C readTaggedObject(Class<C> supertype) throws IOException;
+
 	/**
 	 * Extracts length and an array of marshallables from this context, assuming
 	 * that it has been saved with {@link MarshallingContext#writeLengthAndArray(Marshallable[])}.
@@ -56,6 +104,39 @@ public interface UnmarshallingContext extends AutoCloseable {
 	 */
 	<T extends Marshallable> T[] readLengthAndArray(Unmarshaller<T> unmarshaller, Function<Integer, T[]> supplier) throws IOException;
 
+	/**
+	 * Extracts length and a stream of marshallables from this context, assuming
+	 * that they have been saved with {@link MarshallingContext#writeLengthAndArray(Marshallable[])}.
+	 * Only the length is read by this method. The marshallables are unmarshalled
+	 * one at a time, when the stream pulls them. Until the stream is closed,
+	 * this context must not be used for anything else. Closing the stream skips the
+	 * marshallables that have not been pulled, so that this context is then ready
+	 * to read what follows the array.
+	 * 
+	 * @param <T> the type of the marshallables
+	 * @param unmarshaller the object that unmarshals a single marshallable
+	 * @param skipper the object that skips a single marshallable, used when the stream
+	 *                gets closed before pulling all marshallables
+	 * @return the stream, that throws an {@link java.io.UncheckedIOException} if a marshallable
+	 *         cannot be unmarshalled or skipped
+	 * @throws IOException if an I/O error occurs
+	 */
+	<T extends Marshallable> Stream<T> readLengthAndStream(Unmarshaller<T> unmarshaller, Skipper skipper) throws IOException;
+
+	/**
+	 * Extracts an array of marshallables from this context, assuming that it has
+	 * been saved with {@link MarshallingContext#writeIndexedArray(Marshallable[])}.
+	 * This method reads the bytes of the whole array, but does not unmarshal its elements:
+	 * they can later be unmarshalled from the result, independently from each other.
+	 * If this context reads from an array or from a buffer, the elements are unmarshalled
+	 * directly from that array or buffer, without any copy; hence they reflect later
+	 * modifications of that array or buffer, if any.
+	 * 
+	 * @return the array, whose elements are still to unmarshal
+	 * @throws IOException if an I/O error occurs or if the array is malformed
+	 */
+	IndexedArray readIndexedArray() throws IOException;
+
 	/**
 	 * Extracts the next {@code length} bytes from this context.
 	 * 
@@ -77,6 +158,20 @@ public interface UnmarshallingContext extends AutoCloseable {
 	 */
 	byte[] readLengthAndBytes(String mismatchErrorMessage) throws IOException;
 
+	/**
+	 * Extracts an array of bytes from this context, assuming that it has been saved
+	 * with {@link MarshallingContext#writeLengthAndBytes(byte[])}, as a read-only buffer.
+	 * If this context reads from an array or from a buffer, the result is a view
+	 * of the bytes inside that array or buffer, without any copy; hence it reflects
+	 * later modifications of that array or buffer, if any. Otherwise, the result
+	 * is a view of a copy of the bytes.
+	 * 
+	 * @param mismatchErrorMessage the error message in case of mismatched array length
+	 * @return the buffer, from position 0 to the length of the array of bytes
+	 * @throws IOException if an I/O error occurs
+	 */
+	ByteBuffer readLengthAndSlice(String mismatchErrorMessage) throws IOException;
+
 	/**
 	 * Reads the requested number of bytes into the given byte array.
 	 *
@@ -134,6 +229,7 @@ public interface UnmarshallingContext extends AutoCloseable {
 	/**
 	 * Extracts the next integer from this context, in an optimized way,
 	 * that tries to use smaller representations for frequent cases.
+	 * The representation depends on the format of this context.
 	 * This requires that the integer was previously marshalled through
 	 * {@link MarshallingContext#writeCompactInt(int)}.
 	 * 
@@ -161,6 +257,7 @@ public interface UnmarshallingContext extends AutoCloseable {
 	/**
 	 * Extracts the next long from this context, in an optimized way,
 	 * that tries to use smaller representations for frequent cases.
+	 * The representation depends on the format of this context.
 	 * This requires that the long was previously marshalled through
 	 * {@link MarshallingContext#writeCompactLong(long)}.
 	 * 
@@ -177,6 +274,42 @@ public interface UnmarshallingContext extends AutoCloseable {
 	 */
 	float readFloat() throws IOException;
 
+	/**
+	 * Extracts length and an array of longs from this context, assuming
+	 * that it has been saved with {@link MarshallingContext#writeLongArray(long[])}.
+	 * 
+	 * @return the array
+	 * @throws IOException if an I/O error occurs
+	 */
+	long[] readLongArray() throws IOException;
+
+	/**
+	 * Extracts length and an array of integers from this context, assuming
+	 * that it has been saved with {@link MarshallingContext#writeIntArray(int[])}.
+	 * 
+	 * @return the array
+	 * @throws IOException if an I/O error occurs
+	 */
+	int[] readIntArray() throws IOException;
+
+	/**
+	 * Extracts length and an array of shorts from this context, assuming
+	 * that it has been saved with {@link MarshallingContext#writeShortArray(short[])}.
+	 * 
+	 * @return the array
+	 * @throws IOException if an I/O error occurs
+	 */
+	short[] readShortArray() throws IOException;
+
+	/**
+	 * Extracts length and an array of doubles from this context, assuming
+	 * that it has been saved with {@link MarshallingContext#writeDoubleArray(double[])}.
+	 * 
+	 * @return the array
+	 * @throws IOException if an I/O error occurs
+	 */
+	double[] readDoubleArray() throws IOException;
+
 	/**
 	 * Extracts the next double from this context.
 	 * 
@@ -210,12 +343,84 @@ public interface UnmarshallingContext extends AutoCloseable {
 	/**
 	 * Extracts the next big integer from this context,  in an optimized way,
 	 * that tries to use smaller representations for frequent cases.
+	 * The representation of big integers that do not fit into a long depends
+	 * on the format of this context.
 	 * 
 	 * @return the next big integer
 	 * @throws IOException if an I/O error occurs
 	 */
 	BigInteger readBigInteger() throws IOException;
 
+	/**
+	 * Skips the next integer of this context, that was marshalled through
+	 * {@link MarshallingContext#writeCompactInt(int)}.
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	void skipCompactInt() throws IOException;
+
+	/**
+	 * Skips the next long of this context, that was marshalled through
+	 * {@link MarshallingContext#writeCompactLong(long)}.
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	void skipCompactLong() throws IOException;
+
+	/**
+	 * Skips the next big integer of this context, without creating it.
+	 * It must have been marshalled through {@link MarshallingContext#writeBigInteger(BigInteger)}.
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	void skipBigInteger() throws IOException;
+
+	/**
+	 * Skips the next array of bytes of this context, without creating it.
+	 * It must have been marshalled through {@link MarshallingContext#writeLengthAndBytes(byte[])}.
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	void skipLengthAndBytes() throws IOException;
+
+	/**
+	 * Skips the next string of this context, without creating it.
+	 * It must have been marshalled through {@link MarshallingContext#writeStringUnshared(String)}.
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	void skipStringUnshared() throws IOException;
+
+	/**
+	 * Skips the next string of this context. It must have been marshalled through
+	 * {@link MarshallingContext#writeStringShared(String)}. The string is not created
+	 * if it is a repetition of a string already read or skipped. Otherwise, it is
+	 * created anyway, since later strings might refer to it.
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	void skipStringShared() throws IOException;
+
+	/**
+	 * Skips the next array of marshallables of this context. It must have been marshalled through
+	 * {@link MarshallingContext#writeLengthAndArray(Marshallable[])}.
+	 * 
+	 * @param skipper the object that skips a single marshallable; if the marshallables
+	 *                have no cheaper way of being skipped, this can be the method reference
+	 *                to their unmarshaller
+	 * @throws IOException if an I/O error occurs
+	 */
+	void skipLengthAndArray(Skipper skipper) throws IOException;
+
+	/**
+	 * Skips the next array of marshallables of this context. It must have been marshalled through
+	 * {@link MarshallingContext#writeIndexedArray(Marshallable[])}. Its elements are skipped
+	 * without being unmarshalled.
+	 * 
+	 * @throws IOException if an I/O error occurs or if the array is malformed
+	 */
+	void skipIndexedArray() throws IOException;
+
 	@Override
 	void close() throws IOException;
 }
\ No newline at end of file
@@ -0,0 +1,377 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.benchmarks;
+
+import static io.hotmoka.marshalling.benchmarks.Payloads.BATCH;
+import static io.hotmoka.marshalling.benchmarks.Payloads.REQUESTS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hotmoka.marshalling.MarshallingContexts;
+import io.hotmoka.marshalling.api.MarshallingFormat;
+
+/**
+ * Benchmarks of the primitives of the marshalling contexts. Each operation
+ * is the marshalling of a single value, so that the number of bytes allocated
+ * per operation can be compared with the size of the value in marshalled form.
+ * The cost of the creation of the context is amortized over a batch of values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarshallingBenchmarks {
+	private int[] lengths;
+	private long[] longs;
+	private String[] strings;
+	private String[] repeatedStrings;
+	private BigInteger[] bigIntegers;
+	private SampleRequest[] requests;
+
+	/**
+	 * The number of requests in {@link #block}.
+	 */
+	private final static int BLOCK = 16 * 1024;
+
+	/**
+	 * A large block of requests, repeating {@link #requests}.
+	 */
+	private SampleRequest[] block;
+
+	/**
+	 * The stream where values get marshalled. It is reset at each invocation.
+	 */
+	private final ByteArrayOutputStream baos = new ByteArrayOutputStream(1 << 20);
+
+	/**
+	 * Creates the payloads of the benchmarks.
+	 */
+	@Setup
+	public void setup() {
+		var payloads = new Payloads(42L);
+		lengths = payloads.lengths();
+		longs = payloads.longs();
+		strings = payloads.strings();
+		repeatedStrings = payloads.repeatedStrings();
+		bigIntegers = payloads.bigIntegers();
+		requests = payloads.requests();
+		block = new SampleRequest[BLOCK];
+		for (int pos = 0; pos < BLOCK; pos++)
+			block[pos] = requests[pos % requests.length];
+	}
+
+	/**
+	 * Marshals integers in compact form.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeCompactInt() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			for (int i: lengths)
+				context.writeCompactInt(i);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals longs in compact form.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeCompactLong() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			for (long l: longs)
+				context.writeCompactLong(l);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals integers in compact form, with the {@link MarshallingFormat#V3} format,
+	 * that uses variable-length integers.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeCompactIntV3() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.setFormat(MarshallingFormat.V3);
+			for (int i: lengths)
+				context.writeCompactInt(i);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals longs in compact form, with the {@link MarshallingFormat#V3} format,
+	 * that uses variable-length integers.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeCompactLongV3() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.setFormat(MarshallingFormat.V3);
+			for (long l: longs)
+				context.writeCompactLong(l);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals an array of longs, one element at a time.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeLongs() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.writeCompactInt(longs.length);
+			for (long l: longs)
+				context.writeLong(l);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals an array of longs in bulk.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeLongArray() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.writeLongArray(longs);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals strings in shared form.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeStringShared() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			for (var s: strings)
+				context.writeStringShared(s);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals strings in shared form, most of which are repeated.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeStringSharedRepeated() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			for (var s: repeatedStrings)
+				context.writeStringShared(s);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals strings in unshared form.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeStringUnshared() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			for (var s: strings)
+				context.writeStringUnshared(s);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals big integers.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeBigInteger() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			for (var bi: bigIntegers)
+				context.writeBigInteger(bi);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals big integers, with the {@link MarshallingFormat#V2} format,
+	 * that represents large big integers in binary.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeBigIntegerV2() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.setFormat(MarshallingFormat.V2);
+			for (var bi: bigIntegers)
+				context.writeBigInteger(bi);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals an array of requests.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public int writeLengthAndArray() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.writeLengthAndArray(requests);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals a large block of requests, sequentially.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BLOCK)
+	public int writeLengthAndArrayOfBlock() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.writeLengthAndArray(block);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals a large block of requests, in parallel in the common pool.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BLOCK)
+	public int writeLengthAndArrayOfBlockInParallel() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.writeLengthAndArray(block, ForkJoinPool.commonPool());
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals an array of requests into a growable heap buffer.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public int writeLengthAndArrayIntoGrowableBuffer() throws IOException {
+		try (var context = MarshallingContexts.ofGrowableBuffer(1024, false)) {
+			context.writeLengthAndArray(requests);
+			return context.toByteBuffer().remaining();
+		}
+	}
+
+	/**
+	 * Marshals requests into byte arrays, one by one.
+	 * 
+	 * @return the total number of marshalled bytes
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public int toByteArray() {
+		int total = 0;
+		for (var request: requests)
+			total += request.toByteArray().length;
+
+		return total;
+	}
+
+	/**
+	 * Computes the size of requests in marshalled form, one by one.
+	 * 
+	 * @return the total size of the requests
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public int size() {
+		int total = 0;
+		for (var request: requests)
+			total += request.size();
+
+		return total;
+	}
+}
@@ -0,0 +1,190 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.benchmarks;
+
+import java.math.BigInteger;
+import java.util.HexFormat;
+import java.util.Random;
+
+/**
+ * Generators of realistic payloads for the benchmarks. All values are
+ * pseudo-random but deterministic, so that different runs of the
+ * benchmarks marshal exactly the same data.
+ */
+final class Payloads {
+
+	/**
+	 * The number of primitive values marshalled or unmarshalled in each benchmark invocation.
+	 */
+	final static int BATCH = 1024;
+
+	/**
+	 * The number of requests marshalled or unmarshalled in each benchmark invocation.
+	 */
+	final static int REQUESTS = 64;
+
+	/**
+	 * Identifiers that are typically repeated inside the same marshalled object,
+	 * such as class names, method names and signatures.
+	 */
+	private final static String[] IDENTIFIERS = {
+		"io.takamaka.code.lang.ExternallyOwnedAccount", "io.takamaka.code.lang.Contract", "io.takamaka.code.lang.Storage",
+		"io.takamaka.code.math.UnsignedBigInteger", "io.takamaka.code.util.StorageTreeMap", "io.takamaka.code.tokens.ERC20",
+		"java.math.BigInteger", "java.lang.String", "receive", "transfer", "balanceOf", "getBalance", "approve", "allowance",
+		"(Lio/takamaka/code/lang/Contract;Ljava/math/BigInteger;)V", "()Ljava/math/BigInteger;", "(I)V", "(J)V"
+	};
+
+	private final Random random;
+
+	/**
+	 * Creates a generator of payloads.
+	 * 
+	 * @param seed the seed of the pseudo-random generator
+	 */
+	Payloads(long seed) {
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Yields integers distributed as the lengths and indices found in marshalled objects:
+	 * mostly small, sometimes up to a few kilobytes, rarely large.
+	 * 
+	 * @return the integers
+	 */
+	int[] lengths() {
+		var result = new int[BATCH];
+		for (int pos = 0; pos < BATCH; pos++) {
+			int kind = random.nextInt(100);
+			if (kind < 80)
+				result[pos] = random.nextInt(254);
+			else if (kind < 97)
+				result[pos] = 254 + random.nextInt(Short.MAX_VALUE - 254);
+			else
+				result[pos] = Short.MAX_VALUE + 1 + random.nextInt(1_000_000);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Yields longs distributed as the nonces, gas amounts and timestamps found in requests.
+	 * 
+	 * @return the longs
+	 */
+	long[] longs() {
+		var result = new long[BATCH];
+		for (int pos = 0; pos < BATCH; pos++) {
+			int kind = random.nextInt(4);
+			if (kind == 0)
+				result[pos] = random.nextInt(100_000); // nonce
+			else if (kind == 1)
+				result[pos] = 10_000L + random.nextInt(1_000_000); // gas amount
+			else if (kind == 2)
+				result[pos] = 1_700_000_000_000L + random.nextInt(Integer.MAX_VALUE); // timestamp in milliseconds
+			else
+				result[pos] = random.nextInt(200); // small counter
+		}
+
+		return result;
+	}
+
+	/**
+	 * Yields strings taken from a small set of frequently repeated identifiers,
+	 * interleaved with unique hexadecimal addresses.
+	 * 
+	 * @return the strings
+	 */
+	String[] strings() {
+		var result = new String[BATCH];
+		for (int pos = 0; pos < BATCH; pos++)
+			result[pos] = random.nextInt(4) == 0 ? address() : identifier();
+
+		return result;
+	}
+
+	/**
+	 * Yields strings taken from a large set of identifiers, so that most of them
+	 * are repeated and most repetitions refer to an identifier beyond the first 128.
+	 * 
+	 * @return the strings
+	 */
+	String[] repeatedStrings() {
+		var result = new String[BATCH];
+		for (int pos = 0; pos < BATCH; pos++)
+			result[pos] = "io.hotmoka.example.Class" + random.nextInt(400);
+
+		return result;
+	}
+
+	/**
+	 * Yields big integers distributed as the balances and gas prices found in requests:
+	 * from small constants up to 256 bits.
+	 * 
+	 * @return the big integers
+	 */
+	BigInteger[] bigIntegers() {
+		var result = new BigInteger[BATCH];
+		for (int pos = 0; pos < BATCH; pos++)
+			result[pos] = bigInteger();
+
+		return result;
+	}
+
+	/**
+	 * Yields a pseudo-random sample of requests.
+	 * 
+	 * @return the requests
+	 */
+	SampleRequest[] requests() {
+		var result = new SampleRequest[REQUESTS];
+		for (int pos = 0; pos < REQUESTS; pos++) {
+			var formals = new String[random.nextInt(4)];
+			var actuals = new BigInteger[formals.length];
+			for (int arg = 0; arg < formals.length; arg++) {
+				formals[arg] = identifier();
+				actuals[arg] = bigInteger();
+			}
+
+			var hash = new byte[32];
+			random.nextBytes(hash);
+
+			result[pos] = new SampleRequest(address(), random.nextInt(100_000), "marabunta", BigInteger.valueOf(10_000 + random.nextInt(1_000_000)),
+				BigInteger.valueOf(random.nextInt(200)), hash, identifier(), identifier(), formals, actuals);
+		}
+
+		return result;
+	}
+
+	private String identifier() {
+		return IDENTIFIERS[random.nextInt(IDENTIFIERS.length)];
+	}
+
+	private String address() {
+		var bytes = new byte[32];
+		random.nextBytes(bytes);
+		return HexFormat.of().formatHex(bytes) + "#" + random.nextInt(10);
+	}
+
+	private BigInteger bigInteger() {
+		switch (random.nextInt(5)) {
+		case 0: return BigInteger.valueOf(random.nextInt(252));
+		case 1: return BigInteger.valueOf(random.nextInt());
+		case 2: return BigInteger.valueOf(random.nextLong());
+		default: return new BigInteger(256, random);
+		}
+	}
+}
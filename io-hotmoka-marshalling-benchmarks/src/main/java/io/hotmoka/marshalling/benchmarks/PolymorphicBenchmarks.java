@@ -0,0 +1,383 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.benchmarks;
+
+import static io.hotmoka.marshalling.benchmarks.Payloads.BATCH;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hotmoka.marshalling.AbstractObjectMarshaller;
+import io.hotmoka.marshalling.AbstractObjectUnmarshaller;
+import io.hotmoka.marshalling.MarshallerRegistries;
+import io.hotmoka.marshalling.MarshallingContexts;
+import io.hotmoka.marshalling.UnmarshallingContexts;
+import io.hotmoka.marshalling.api.MarshallerRegistry;
+import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.UnmarshallingContext;
+
+/**
+ * Benchmarks of the marshalling of a polymorphic hierarchy of values, through type tags
+ * registered in a shared registry, against hand-written selector bytes with chains
+ * of {@code instanceof} when writing and a {@code switch} when reading.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolymorphicBenchmarks {
+
+	/**
+	 * A polymorphic value, similar to the storage values of a node.
+	 */
+	public interface Value {}
+
+	/**
+	 * A value holding a boolean.
+	 * 
+	 * @param value the boolean
+	 */
+	public record BooleanValue(boolean value) implements Value {}
+
+	/**
+	 * A value holding a byte.
+	 * 
+	 * @param value the byte
+	 */
+	public record ByteValue(byte value) implements Value {}
+
+	/**
+	 * A value holding a char.
+	 * 
+	 * @param value the char
+	 */
+	public record CharValue(char value) implements Value {}
+
+	/**
+	 * A value holding a short.
+	 * 
+	 * @param value the short
+	 */
+	public record ShortValue(short value) implements Value {}
+
+	/**
+	 * A value holding an int.
+	 * 
+	 * @param value the int
+	 */
+	public record IntValue(int value) implements Value {}
+
+	/**
+	 * A value holding a long.
+	 * 
+	 * @param value the long
+	 */
+	public record LongValue(long value) implements Value {}
+
+	/**
+	 * A value holding a double.
+	 * 
+	 * @param value the double
+	 */
+	public record DoubleValue(double value) implements Value {}
+
+	/**
+	 * A value holding a string.
+	 * 
+	 * @param value the string
+	 */
+	public record StringValue(String value) implements Value {}
+
+	/**
+	 * The registry of the type tags, marshallers and unmarshallers of the values.
+	 * It is built once and shared by all contexts.
+	 */
+	private final static MarshallerRegistry REGISTRY = MarshallerRegistries.empty()
+		.withMarshaller(new AbstractObjectMarshaller<>(BooleanValue.class) {
+			@Override
+			public void write(BooleanValue value, MarshallingContext context) throws IOException {
+				context.writeBoolean(value.value);
+			}
+		})
+		.withMarshaller(new AbstractObjectMarshaller<>(ByteValue.class) {
+			@Override
+			public void write(ByteValue value, MarshallingContext context) throws IOException {
+				context.writeByte(value.value);
+			}
+		})
+		.withMarshaller(new AbstractObjectMarshaller<>(CharValue.class) {
+			@Override
+			public void write(CharValue value, MarshallingContext context) throws IOException {
+				context.writeChar(value.value);
+			}
+		})
+		.withMarshaller(new AbstractObjectMarshaller<>(ShortValue.class) {
+			@Override
+			public void write(ShortValue value, MarshallingContext context) throws IOException {
+				context.writeShort(value.value);
+			}
+		})
+		.withMarshaller(new AbstractObjectMarshaller<>(IntValue.class) {
+			@Override
+			public void write(IntValue value, MarshallingContext context) throws IOException {
+				context.writeCompactInt(value.value);
+			}
+		})
+		.withMarshaller(new AbstractObjectMarshaller<>(LongValue.class) {
+			@Override
+			public void write(LongValue value, MarshallingContext context) throws IOException {
+				context.writeCompactLong(value.value);
+			}
+		})
+		.withMarshaller(new AbstractObjectMarshaller<>(DoubleValue.class) {
+			@Override
+			public void write(DoubleValue value, MarshallingContext context) throws IOException {
+				context.writeDouble(value.value);
+			}
+		})
+		.withMarshaller(new AbstractObjectMarshaller<>(StringValue.class) {
+			@Override
+			public void write(StringValue value, MarshallingContext context) throws IOException {
+				context.writeStringShared(value.value);
+			}
+		})
+		.withUnmarshaller(new AbstractObjectUnmarshaller<>(BooleanValue.class) {
+			@Override
+			public BooleanValue read(UnmarshallingContext context) throws IOException {
+				return new BooleanValue(context.readBoolean());
+			}
+		})
+		.withUnmarshaller(new AbstractObjectUnmarshaller<>(ByteValue.class) {
+			@Override
+			public ByteValue read(UnmarshallingContext context) throws IOException {
+				return new ByteValue(context.readByte());
+			}
+		})
+		.withUnmarshaller(new AbstractObjectUnmarshaller<>(CharValue.class) {
+			@Override
+			public CharValue read(UnmarshallingContext context) throws IOException {
+				return new CharValue(context.readChar());
+			}
+		})
+		.withUnmarshaller(new AbstractObjectUnmarshaller<>(ShortValue.class) {
+			@Override
+			public ShortValue read(UnmarshallingContext context) throws IOException {
+				return new ShortValue(context.readShort());
+			}
+		})
+		.withUnmarshaller(new AbstractObjectUnmarshaller<>(IntValue.class) {
+			@Override
+			public IntValue read(UnmarshallingContext context) throws IOException {
+				return new IntValue(context.readCompactInt());
+			}
+		})
+		.withUnmarshaller(new AbstractObjectUnmarshaller<>(LongValue.class) {
+			@Override
+			public LongValue read(UnmarshallingContext context) throws IOException {
+				return new LongValue(context.readCompactLong());
+			}
+		})
+		.withUnmarshaller(new AbstractObjectUnmarshaller<>(DoubleValue.class) {
+			@Override
+			public DoubleValue read(UnmarshallingContext context) throws IOException {
+				return new DoubleValue(context.readDouble());
+			}
+		})
+		.withUnmarshaller(new AbstractObjectUnmarshaller<>(StringValue.class) {
+			@Override
+			public StringValue read(UnmarshallingContext context) throws IOException {
+				return new StringValue(context.readStringShared());
+			}
+		})
+		.withTag(BooleanValue.class, 0)
+		.withTag(ByteValue.class, 1)
+		.withTag(CharValue.class, 2)
+		.withTag(ShortValue.class, 3)
+		.withTag(IntValue.class, 4)
+		.withTag(LongValue.class, 5)
+		.withTag(DoubleValue.class, 6)
+		.withTag(StringValue.class, 7);
+
+	private Value[] values;
+	private byte[] handWritten;
+	private byte[] tagged;
+
+	/**
+	 * The stream where values get marshalled. It is reset at each invocation.
+	 */
+	private final ByteArrayOutputStream baos = new ByteArrayOutputStream(1 << 20);
+
+	/**
+	 * Creates the payloads of the benchmarks.
+	 * 
+	 * @throws IOException if the payloads cannot be marshalled
+	 */
+	@Setup
+	public void setup() throws IOException {
+		var random = new Random(42L);
+		values = new Value[BATCH];
+		for (int pos = 0; pos < BATCH; pos++)
+			values[pos] = switch (random.nextInt(8)) {
+			case 0 -> new BooleanValue(random.nextBoolean());
+			case 1 -> new ByteValue((byte) random.nextInt());
+			case 2 -> new CharValue((char) random.nextInt());
+			case 3 -> new ShortValue((short) random.nextInt());
+			case 4 -> new IntValue(random.nextInt(1000));
+			case 5 -> new LongValue(random.nextLong());
+			case 6 -> new DoubleValue(random.nextDouble());
+			default -> new StringValue("s" + random.nextInt(16));
+			};
+
+		writeHandWritten();
+		handWritten = baos.toByteArray();
+		writeTagged();
+		tagged = baos.toByteArray();
+	}
+
+	private static void writeWithSelector(Value value, MarshallingContext context) throws IOException {
+		if (value instanceof BooleanValue bv) {
+			context.writeByte(0);
+			context.writeBoolean(bv.value);
+		}
+		else if (value instanceof ByteValue bv) {
+			context.writeByte(1);
+			context.writeByte(bv.value);
+		}
+		else if (value instanceof CharValue cv) {
+			context.writeByte(2);
+			context.writeChar(cv.value);
+		}
+		else if (value instanceof ShortValue sv) {
+			context.writeByte(3);
+			context.writeShort(sv.value);
+		}
+		else if (value instanceof IntValue iv) {
+			context.writeByte(4);
+			context.writeCompactInt(iv.value);
+		}
+		else if (value instanceof LongValue lv) {
+			context.writeByte(5);
+			context.writeCompactLong(lv.value);
+		}
+		else if (value instanceof DoubleValue dv) {
+			context.writeByte(6);
+			context.writeDouble(dv.value);
+		}
+		else if (value instanceof StringValue sv) {
+			context.writeByte(7);
+			context.writeStringShared(sv.value);
+		}
+		else
+			throw new IOException("Unexpected value " + value);
+	}
+
+	private static Value readWithSelector(UnmarshallingContext context) throws IOException {
+		byte selector = context.readByte();
+		switch (selector) {
+		case 0: return new BooleanValue(context.readBoolean());
+		case 1: return new ByteValue(context.readByte());
+		case 2: return new CharValue(context.readChar());
+		case 3: return new ShortValue(context.readShort());
+		case 4: return new IntValue(context.readCompactInt());
+		case 5: return new LongValue(context.readCompactLong());
+		case 6: return new DoubleValue(context.readDouble());
+		case 7: return new StringValue(context.readStringShared());
+		default: throw new IOException("Unexpected selector " + selector);
+		}
+	}
+
+	/**
+	 * Marshals values with hand-written selectors.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeHandWritten() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			for (var value: values)
+				writeWithSelector(value, context);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals values with type tags.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeTagged() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.setMarshallerRegistry(REGISTRY);
+			for (var value: values)
+				context.writeTaggedObject(value);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Unmarshals values with hand-written selectors.
+	 * 
+	 * @param blackhole the sink of the unmarshalled values
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readHandWritten(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(handWritten, 0, handWritten.length)) {
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(readWithSelector(context));
+		}
+	}
+
+	/**
+	 * Unmarshals values with type tags.
+	 * 
+	 * @param blackhole the sink of the unmarshalled values
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readTagged(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(tagged, 0, tagged.length)) {
+			context.setMarshallerRegistry(REGISTRY);
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(context.readTaggedObject(Value.class));
+		}
+	}
+}
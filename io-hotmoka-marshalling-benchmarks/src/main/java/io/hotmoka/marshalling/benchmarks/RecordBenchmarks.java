@@ -0,0 +1,195 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.benchmarks;
+
+import static io.hotmoka.marshalling.benchmarks.Payloads.BATCH;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hotmoka.marshalling.AbstractObjectMarshaller;
+import io.hotmoka.marshalling.AbstractObjectUnmarshaller;
+import io.hotmoka.marshalling.MarshallerRegistries;
+import io.hotmoka.marshalling.MarshallingContexts;
+import io.hotmoka.marshalling.RecordMarshallers;
+import io.hotmoka.marshalling.UnmarshallingContexts;
+import io.hotmoka.marshalling.api.Compact;
+import io.hotmoka.marshalling.api.MarshallerRegistry;
+import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.Shared;
+import io.hotmoka.marshalling.api.UnmarshallingContext;
+
+/**
+ * Benchmarks of the marshalling of a record through the object marshallers built at run time
+ * by {@link RecordMarshallers}, against hand-written object marshallers for the same record.
+ * Both produce the same bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordBenchmarks {
+
+	/**
+	 * A transfer of coins, similar to the requests of a node.
+	 * 
+	 * @param caller the caller of the transfer
+	 * @param receiver the receiver of the coins
+	 * @param amount the amount of transferred coins
+	 * @param nonce the nonce of the caller
+	 * @param gasLimit the maximal gas for the transfer
+	 * @param signature the signature of the transfer
+	 */
+	public record Transfer(@Shared String caller, @Shared String receiver, @Compact long amount, @Compact long nonce, @Compact int gasLimit, byte[] signature) {}
+
+	/**
+	 * The registry with hand-written object marshallers and unmarshallers of transfers.
+	 */
+	private final static MarshallerRegistry HAND_WRITTEN = MarshallerRegistries.empty()
+		.withMarshaller(new AbstractObjectMarshaller<>(Transfer.class) {
+			@Override
+			public void write(Transfer transfer, MarshallingContext context) throws IOException {
+				context.writeStringShared(transfer.caller);
+				context.writeStringShared(transfer.receiver);
+				context.writeCompactLong(transfer.amount);
+				context.writeCompactLong(transfer.nonce);
+				context.writeCompactInt(transfer.gasLimit);
+				context.writeLengthAndBytes(transfer.signature);
+			}
+		})
+		.withUnmarshaller(new AbstractObjectUnmarshaller<>(Transfer.class) {
+			@Override
+			public Transfer read(UnmarshallingContext context) throws IOException {
+				return new Transfer(context.readStringShared(), context.readStringShared(), context.readCompactLong(),
+					context.readCompactLong(), context.readCompactInt(), context.readLengthAndBytes("Mismatched length of component signature"));
+			}
+		});
+
+	/**
+	 * The registry with the object marshallers and unmarshallers of transfers built at run time.
+	 */
+	private final static MarshallerRegistry BUILT_AT_RUN_TIME = RecordMarshallers.register(MarshallerRegistries.empty(), Transfer.class, MethodHandles.lookup());
+
+	private Transfer[] transfers;
+	private byte[] marshalled;
+
+	/**
+	 * The stream where transfers get marshalled. It is reset at each invocation.
+	 */
+	private final ByteArrayOutputStream baos = new ByteArrayOutputStream(1 << 20);
+
+	/**
+	 * Creates the payloads of the benchmarks.
+	 * 
+	 * @throws IOException if the payloads cannot be marshalled
+	 */
+	@Setup
+	public void setup() throws IOException {
+		var random = new Random(42L);
+		transfers = new Transfer[BATCH];
+		for (int pos = 0; pos < BATCH; pos++) {
+			var signature = new byte[64];
+			random.nextBytes(signature);
+			transfers[pos] = new Transfer("account" + random.nextInt(16), "account" + random.nextInt(16),
+				random.nextInt(1_000_000), random.nextInt(1000), 10_000 + random.nextInt(100_000), signature);
+		}
+
+		write(HAND_WRITTEN);
+		marshalled = baos.toByteArray();
+	}
+
+	private int write(MarshallerRegistry registry) throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.setMarshallerRegistry(registry);
+			for (var transfer: transfers)
+				context.writeObject(Transfer.class, transfer);
+		}
+
+		return baos.size();
+	}
+
+	private void read(MarshallerRegistry registry, Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(marshalled, 0, marshalled.length)) {
+			context.setMarshallerRegistry(registry);
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(context.readObject(Transfer.class));
+		}
+	}
+
+	/**
+	 * Marshals transfers with the hand-written object marshaller.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeHandWritten() throws IOException {
+		return write(HAND_WRITTEN);
+	}
+
+	/**
+	 * Marshals transfers with the object marshaller built at run time.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int writeBuiltAtRunTime() throws IOException {
+		return write(BUILT_AT_RUN_TIME);
+	}
+
+	/**
+	 * Unmarshals transfers with the hand-written object unmarshaller.
+	 * 
+	 * @param blackhole the sink of the unmarshalled transfers
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readHandWritten(Blackhole blackhole) throws IOException {
+		read(HAND_WRITTEN, blackhole);
+	}
+
+	/**
+	 * Unmarshals transfers with the object unmarshaller built at run time.
+	 * 
+	 * @param blackhole the sink of the unmarshalled transfers
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readBuiltAtRunTime(Blackhole blackhole) throws IOException {
+		read(BUILT_AT_RUN_TIME, blackhole);
+	}
+}
@@ -0,0 +1,273 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hotmoka.marshalling.AbstractMarshallingContext;
+import io.hotmoka.marshalling.AbstractObjectMarshaller;
+import io.hotmoka.marshalling.AbstractObjectUnmarshaller;
+import io.hotmoka.marshalling.AbstractUnmarshallingContext;
+import io.hotmoka.marshalling.MarshallerRegistries;
+import io.hotmoka.marshalling.MarshallingContexts;
+import io.hotmoka.marshalling.UnmarshallingContexts;
+import io.hotmoka.marshalling.api.MarshallerRegistry;
+import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.UnmarshallingContext;
+
+/**
+ * Benchmarks of the creation of short-lived contexts that marshal or unmarshal a few objects
+ * through twenty object marshallers or unmarshallers. These are either registered by each context
+ * in its constructor, as subclasses of the contexts traditionally do, or installed at once
+ * through a registry shared by all contexts. Each operation is the creation and use of a context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmarks {
+
+	/**
+	 * An object marshaller that marshals objects as their string representation.
+	 * 
+	 * @param <C> the type of the marshalled objects
+	 */
+	private static class ToStringMarshaller<C> extends AbstractObjectMarshaller<C> {
+
+		private ToStringMarshaller(Class<C> clazz) {
+			super(clazz);
+		}
+
+		@Override
+		public void write(C value, MarshallingContext context) throws IOException {
+			context.writeStringShared(value.toString());
+		}
+	}
+
+	/**
+	 * An object unmarshaller that unmarshals objects from their string representation.
+	 * 
+	 * @param <C> the type of the unmarshalled objects
+	 */
+	private static class FromStringUnmarshaller<C> extends AbstractObjectUnmarshaller<C> {
+		private final Function<String, C> parser;
+
+		private FromStringUnmarshaller(Class<C> clazz, Function<String, C> parser) {
+			super(clazz);
+
+			this.parser = parser;
+		}
+
+		@Override
+		public C read(UnmarshallingContext context) throws IOException {
+			return parser.apply(context.readStringShared());
+		}
+	}
+
+	/**
+	 * The twenty object marshallers.
+	 */
+	private final static ToStringMarshaller<?>[] MARSHALLERS = {
+		new ToStringMarshaller<>(String.class), new ToStringMarshaller<>(Integer.class), new ToStringMarshaller<>(Long.class),
+		new ToStringMarshaller<>(Short.class), new ToStringMarshaller<>(Byte.class), new ToStringMarshaller<>(Character.class),
+		new ToStringMarshaller<>(Boolean.class), new ToStringMarshaller<>(Float.class), new ToStringMarshaller<>(Double.class),
+		new ToStringMarshaller<>(BigInteger.class), new ToStringMarshaller<>(BigDecimal.class), new ToStringMarshaller<>(Instant.class),
+		new ToStringMarshaller<>(LocalDate.class), new ToStringMarshaller<>(LocalTime.class), new ToStringMarshaller<>(LocalDateTime.class),
+		new ToStringMarshaller<>(Duration.class), new ToStringMarshaller<>(Period.class), new ToStringMarshaller<>(Year.class),
+		new ToStringMarshaller<>(ZoneOffset.class), new ToStringMarshaller<>(UUID.class)
+	};
+
+	/**
+	 * The twenty object unmarshallers.
+	 */
+	private final static FromStringUnmarshaller<?>[] UNMARSHALLERS = {
+		new FromStringUnmarshaller<>(String.class, s -> s), new FromStringUnmarshaller<>(Integer.class, Integer::valueOf),
+		new FromStringUnmarshaller<>(Long.class, Long::valueOf), new FromStringUnmarshaller<>(Short.class, Short::valueOf),
+		new FromStringUnmarshaller<>(Byte.class, Byte::valueOf), new FromStringUnmarshaller<>(Character.class, s -> s.charAt(0)),
+		new FromStringUnmarshaller<>(Boolean.class, Boolean::valueOf), new FromStringUnmarshaller<>(Float.class, Float::valueOf),
+		new FromStringUnmarshaller<>(Double.class, Double::valueOf), new FromStringUnmarshaller<>(BigInteger.class, BigInteger::new),
+		new FromStringUnmarshaller<>(BigDecimal.class, BigDecimal::new), new FromStringUnmarshaller<>(Instant.class, Instant::parse),
+		new FromStringUnmarshaller<>(LocalDate.class, LocalDate::parse), new FromStringUnmarshaller<>(LocalTime.class, LocalTime::parse),
+		new FromStringUnmarshaller<>(LocalDateTime.class, LocalDateTime::parse), new FromStringUnmarshaller<>(Duration.class, Duration::parse),
+		new FromStringUnmarshaller<>(Period.class, Period::parse), new FromStringUnmarshaller<>(Year.class, Year::parse),
+		new FromStringUnmarshaller<>(ZoneOffset.class, ZoneOffset::of), new FromStringUnmarshaller<>(UUID.class, UUID::fromString)
+	};
+
+	/**
+	 * The registry with all object marshallers and unmarshallers, shared by all contexts.
+	 */
+	private final static MarshallerRegistry REGISTRY;
+
+	static {
+		var registry = MarshallerRegistries.empty();
+		for (var marshaller: MARSHALLERS)
+			registry = registry.withMarshaller(marshaller);
+		for (var unmarshaller: UNMARSHALLERS)
+			registry = registry.withUnmarshaller(unmarshaller);
+
+		REGISTRY = registry;
+	}
+
+	/**
+	 * A marshalling context that registers all object marshallers in its constructor.
+	 */
+	private static class LegacyMarshallingContext extends AbstractMarshallingContext {
+
+		private LegacyMarshallingContext(OutputStream os) {
+			super(os);
+
+			for (var marshaller: MARSHALLERS)
+				registerObjectMarshaller(marshaller);
+		}
+	}
+
+	/**
+	 * An unmarshalling context that registers all object unmarshallers in its constructor.
+	 */
+	private static class LegacyUnmarshallingContext extends AbstractUnmarshallingContext {
+
+		private LegacyUnmarshallingContext(byte[] bytes) {
+			super(bytes, 0, bytes.length);
+
+			for (var unmarshaller: UNMARSHALLERS)
+				registerObjectUnmarshaller(unmarshaller);
+		}
+	}
+
+	private final URI uri = URI.create("https://www.hotmoka.io");
+	private final BigInteger balance = BigInteger.TEN.pow(20);
+	private final Instant instant = Instant.ofEpochSecond(1_700_000_000L);
+	private final UUID uuid = new UUID(42L, 13L);
+	private byte[] marshalled;
+
+	/**
+	 * The stream where objects get marshalled. It is reset at each invocation.
+	 */
+	private final ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+
+	/**
+	 * Creates the payload of the benchmarks.
+	 * 
+	 * @throws IOException if the payload cannot be marshalled
+	 */
+	@Setup
+	public void setup() throws IOException {
+		writeWithRegistry();
+		marshalled = baos.toByteArray();
+	}
+
+	private void write(MarshallingContext context) throws IOException {
+		context.writeObject(String.class, uri.toString());
+		context.writeObject(BigInteger.class, balance);
+		context.writeObject(Instant.class, instant);
+		context.writeObject(UUID.class, uuid);
+	}
+
+	private static int read(UnmarshallingContext context) throws IOException {
+		return context.readObject(String.class).length() + context.readObject(BigInteger.class).bitLength()
+			+ context.readObject(Instant.class).getNano() + context.readObject(UUID.class).version();
+	}
+
+	/**
+	 * Marshals four objects into a new context that registers twenty object marshallers in its constructor.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark
+	public int writeWithRegistrations() throws IOException {
+		baos.reset();
+		try (var context = new LegacyMarshallingContext(baos)) {
+			write(context);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Marshals four objects into a new context that uses a shared registry of twenty object marshallers.
+	 * 
+	 * @return the number of marshalled bytes
+	 * @throws IOException if marshalling fails
+	 */
+	@Benchmark
+	public int writeWithRegistry() throws IOException {
+		baos.reset();
+		try (var context = MarshallingContexts.of(baos)) {
+			context.setMarshallerRegistry(REGISTRY);
+			write(context);
+		}
+
+		return baos.size();
+	}
+
+	/**
+	 * Unmarshals four objects from a new context that registers twenty object unmarshallers in its constructor.
+	 * 
+	 * @return a value computed from the unmarshalled objects
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark
+	public int readWithRegistrations() throws IOException {
+		try (var context = new LegacyUnmarshallingContext(marshalled)) {
+			return read(context);
+		}
+	}
+
+	/**
+	 * Unmarshals four objects from a new context that uses a shared registry of twenty object unmarshallers.
+	 * 
+	 * @return a value computed from the unmarshalled objects
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark
+	public int readWithRegistry() throws IOException {
+		try (var context = UnmarshallingContexts.of(marshalled, 0, marshalled.length)) {
+			context.setMarshallerRegistry(REGISTRY);
+			return read(context);
+		}
+	}
+}
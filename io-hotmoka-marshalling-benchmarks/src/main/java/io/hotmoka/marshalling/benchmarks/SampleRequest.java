@@ -0,0 +1,111 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.benchmarks;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import io.hotmoka.marshalling.AbstractMarshallable;
+import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.UnmarshallingContext;
+
+/**
+ * A marshallable object whose shape resembles that of a transaction request
+ * calling a method: it contains shared and unshared strings, compact longs,
+ * big integers and byte arrays.
+ */
+public class SampleRequest extends AbstractMarshallable {
+	private final String caller;
+	private final long nonce;
+	private final String chainId;
+	private final BigInteger gasLimit;
+	private final BigInteger gasPrice;
+	private final byte[] classpath;
+	private final String className;
+	private final String methodName;
+	private final String[] formals;
+	private final BigInteger[] actuals;
+
+	/**
+	 * Creates the request.
+	 * 
+	 * @param caller the caller of the request
+	 * @param nonce the nonce of the request
+	 * @param chainId the chain identifier of the request
+	 * @param gasLimit the gas limit of the request
+	 * @param gasPrice the gas price of the request
+	 * @param classpath the hash of the classpath of the request
+	 * @param className the name of the class of the called method
+	 * @param methodName the name of the called method
+	 * @param formals the formal arguments of the called method
+	 * @param actuals the actual arguments of the called method
+	 */
+	public SampleRequest(String caller, long nonce, String chainId, BigInteger gasLimit, BigInteger gasPrice, byte[] classpath,
+			String className, String methodName, String[] formals, BigInteger[] actuals) {
+
+		this.caller = caller;
+		this.nonce = nonce;
+		this.chainId = chainId;
+		this.gasLimit = gasLimit;
+		this.gasPrice = gasPrice;
+		this.classpath = classpath;
+		this.className = className;
+		this.methodName = methodName;
+		this.formals = formals;
+		this.actuals = actuals;
+	}
+
+	/**
+	 * Unmarshals a request from the given context.
+	 * 
+	 * @param context the unmarshalling context
+	 * @throws IOException if the request could not be unmarshalled
+	 */
+	public SampleRequest(UnmarshallingContext context) throws IOException {
+		this.caller = context.readStringShared();
+		this.nonce = context.readCompactLong();
+		this.chainId = context.readStringUnshared();
+		this.gasLimit = context.readBigInteger();
+		this.gasPrice = context.readBigInteger();
+		this.classpath = context.readLengthAndBytes("Classpath length mismatch");
+		this.className = context.readStringShared();
+		this.methodName = context.readStringShared();
+		this.formals = new String[context.readCompactInt()];
+		this.actuals = new BigInteger[formals.length];
+		for (int pos = 0; pos < formals.length; pos++)
+			formals[pos] = context.readStringShared();
+		for (int pos = 0; pos < actuals.length; pos++)
+			actuals[pos] = context.readBigInteger();
+	}
+
+	@Override
+	public void into(MarshallingContext context) throws IOException {
+		context.writeStringShared(caller);
+		context.writeCompactLong(nonce);
+		context.writeStringUnshared(chainId);
+		context.writeBigInteger(gasLimit);
+		context.writeBigInteger(gasPrice);
+		context.writeLengthAndBytes(classpath);
+		context.writeStringShared(className);
+		context.writeStringShared(methodName);
+		context.writeCompactInt(formals.length);
+		for (var formal: formals)
+			context.writeStringShared(formal);
+		for (var actual: actuals)
+			context.writeBigInteger(actual);
+	}
+}
@@ -0,0 +1,488 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.benchmarks;
+
+import static io.hotmoka.marshalling.benchmarks.Payloads.BATCH;
+import static io.hotmoka.marshalling.benchmarks.Payloads.REQUESTS;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hotmoka.marshalling.MarshallingContexts;
+import io.hotmoka.marshalling.StringCaches;
+import io.hotmoka.marshalling.UnmarshallingContexts;
+import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.MarshallingFormat;
+import io.hotmoka.marshalling.api.StringCache;
+
+/**
+ * Benchmarks of the primitives of the unmarshalling contexts. They read back
+ * the same payloads marshalled by {@link MarshallingBenchmarks}. Each operation
+ * is the unmarshalling of a single value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnmarshallingBenchmarks {
+	private byte[] compactInts;
+	private byte[] compactLongs;
+	private byte[] compactIntsV3;
+	private byte[] compactLongsV3;
+	private byte[] longArray;
+	private byte[] stringsShared;
+	private byte[] repeatedStringsShared;
+	private byte[] stringsUnshared;
+	private byte[] repeatedStringsUnshared;
+	private byte[] bigIntegers;
+	private byte[] bigIntegersV2;
+	private byte[] requests;
+	private byte[] indexedRequests;
+	private byte[] requestsOneAfterTheOther;
+
+	/**
+	 * The size of the chunks fed to the incremental contexts, as the payload of a TCP segment on Ethernet.
+	 */
+	private final static int CHUNK = 1460;
+
+	/**
+	 * A cache of strings shared by all invocations of the benchmarks that use a cache.
+	 */
+	private StringCache cache;
+
+	/**
+	 * A marshalling action used to create the payloads of the benchmarks.
+	 */
+	private interface Writer {
+		void writeInto(MarshallingContext context) throws IOException;
+	}
+
+	/**
+	 * Marshals the payloads of the benchmarks.
+	 * 
+	 * @throws IOException if marshalling fails
+	 */
+	@Setup
+	public void setup() throws IOException {
+		var payloads = new Payloads(42L);
+		int[] lengths = payloads.lengths();
+		long[] longs = payloads.longs();
+		String[] strings = payloads.strings();
+		String[] repeatedStrings = payloads.repeatedStrings();
+		var bis = payloads.bigIntegers();
+		var rs = payloads.requests();
+
+		compactInts = marshal(context -> { for (int i: lengths) context.writeCompactInt(i); });
+		compactLongs = marshal(context -> { for (long l: longs) context.writeCompactLong(l); });
+		compactIntsV3 = marshal(context -> { context.setFormat(MarshallingFormat.V3); for (int i: lengths) context.writeCompactInt(i); });
+		longArray = marshal(context -> context.writeLongArray(longs));
+		compactLongsV3 = marshal(context -> { context.setFormat(MarshallingFormat.V3); for (long l: longs) context.writeCompactLong(l); });
+		stringsShared = marshal(context -> { for (var s: strings) context.writeStringShared(s); });
+		repeatedStringsShared = marshal(context -> { for (var s: repeatedStrings) context.writeStringShared(s); });
+		stringsUnshared = marshal(context -> { for (var s: strings) context.writeStringUnshared(s); });
+		repeatedStringsUnshared = marshal(context -> { for (var s: repeatedStrings) context.writeStringUnshared(s); });
+		bigIntegers = marshal(context -> { for (var bi: bis) context.writeBigInteger(bi); });
+		bigIntegersV2 = marshal(context -> { context.setFormat(MarshallingFormat.V2); for (var bi: bis) context.writeBigInteger(bi); });
+		requests = marshal(context -> context.writeLengthAndArray(rs));
+		indexedRequests = marshal(context -> context.writeIndexedArray(rs));
+		requestsOneAfterTheOther = marshal(context -> { for (var r: rs) r.into(context); });
+		cache = StringCaches.of(1024);
+	}
+
+	private static byte[] marshal(Writer writer) throws IOException {
+		var baos = new ByteArrayOutputStream();
+		try (var context = MarshallingContexts.of(baos)) {
+			writer.writeInto(context);
+		}
+
+		return baos.toByteArray();
+	}
+
+	/**
+	 * Unmarshals integers in compact form.
+	 * 
+	 * @return the sum of the unmarshalled integers
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int readCompactInt() throws IOException {
+		int sum = 0;
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(compactInts))) {
+			for (int pos = 0; pos < BATCH; pos++)
+				sum += context.readCompactInt();
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Unmarshals integers in compact form, directly from an array of bytes.
+	 * 
+	 * @return the sum of the unmarshalled integers
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int readCompactIntFromArray() throws IOException {
+		int sum = 0;
+		try (var context = UnmarshallingContexts.of(compactInts, 0, compactInts.length)) {
+			for (int pos = 0; pos < BATCH; pos++)
+				sum += context.readCompactInt();
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Unmarshals longs in compact form.
+	 * 
+	 * @return the sum of the unmarshalled longs
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public long readCompactLong() throws IOException {
+		long sum = 0L;
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(compactLongs))) {
+			for (int pos = 0; pos < BATCH; pos++)
+				sum += context.readCompactLong();
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Unmarshals integers in compact form, with the {@link MarshallingFormat#V3} format,
+	 * that uses variable-length integers.
+	 * 
+	 * @return the sum of the unmarshalled integers
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int readCompactIntV3() throws IOException {
+		int sum = 0;
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(compactIntsV3))) {
+			context.setFormat(MarshallingFormat.V3);
+			for (int pos = 0; pos < BATCH; pos++)
+				sum += context.readCompactInt();
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Unmarshals integers in compact form, with the {@link MarshallingFormat#V3} format,
+	 * directly from an array of bytes.
+	 * 
+	 * @return the sum of the unmarshalled integers
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public int readCompactIntV3FromArray() throws IOException {
+		int sum = 0;
+		try (var context = UnmarshallingContexts.of(compactIntsV3, 0, compactIntsV3.length)) {
+			context.setFormat(MarshallingFormat.V3);
+			for (int pos = 0; pos < BATCH; pos++)
+				sum += context.readCompactInt();
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Unmarshals longs in compact form, with the {@link MarshallingFormat#V3} format,
+	 * that uses variable-length integers.
+	 * 
+	 * @return the sum of the unmarshalled longs
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public long readCompactLongV3() throws IOException {
+		long sum = 0L;
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(compactLongsV3))) {
+			context.setFormat(MarshallingFormat.V3);
+			for (int pos = 0; pos < BATCH; pos++)
+				sum += context.readCompactLong();
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Unmarshals an array of longs, one element at a time.
+	 * 
+	 * @return the unmarshalled array
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public long[] readLongs() throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(longArray))) {
+			var result = new long[context.readCompactInt()];
+			for (int pos = 0; pos < result.length; pos++)
+				result[pos] = context.readLong();
+
+			return result;
+		}
+	}
+
+	/**
+	 * Unmarshals an array of longs in bulk.
+	 * 
+	 * @return the unmarshalled array
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public long[] readLongArray() throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(longArray))) {
+			return context.readLongArray();
+		}
+	}
+
+	/**
+	 * Unmarshals an array of longs in bulk, directly from an array of bytes.
+	 * 
+	 * @return the unmarshalled array
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public long[] readLongArrayFromArray() throws IOException {
+		try (var context = UnmarshallingContexts.of(longArray, 0, longArray.length)) {
+			return context.readLongArray();
+		}
+	}
+
+	/**
+	 * Unmarshals strings in shared form.
+	 * 
+	 * @param blackhole the sink of the unmarshalled strings
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readStringShared(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(stringsShared))) {
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(context.readStringShared());
+		}
+	}
+
+	/**
+	 * Unmarshals strings in shared form, most of which are repeated.
+	 * 
+	 * @param blackhole the sink of the unmarshalled strings
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readStringSharedRepeated(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(repeatedStringsShared))) {
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(context.readStringShared());
+		}
+	}
+
+	/**
+	 * Unmarshals strings in unshared form.
+	 * 
+	 * @param blackhole the sink of the unmarshalled strings
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readStringUnshared(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(stringsUnshared))) {
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(context.readStringUnshared());
+		}
+	}
+
+	/**
+	 * Unmarshals strings in unshared form, most of which are repeated.
+	 * 
+	 * @param blackhole the sink of the unmarshalled strings
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readStringUnsharedRepeated(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(repeatedStringsUnshared))) {
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(context.readStringUnshared());
+		}
+	}
+
+	/**
+	 * Unmarshals strings in unshared form, most of which are repeated,
+	 * through a string cache shared by all invocations.
+	 * 
+	 * @param blackhole the sink of the unmarshalled strings
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readStringUnsharedRepeatedWithCache(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(repeatedStringsUnshared))) {
+			context.setStringCache(cache);
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(context.readStringUnshared());
+		}
+	}
+
+	/**
+	 * Unmarshals big integers.
+	 * 
+	 * @param blackhole the sink of the unmarshalled big integers
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readBigInteger(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(bigIntegers))) {
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(context.readBigInteger());
+		}
+	}
+
+	/**
+	 * Unmarshals big integers, with the {@link MarshallingFormat#V2} format,
+	 * that represents large big integers in binary.
+	 * 
+	 * @param blackhole the sink of the unmarshalled big integers
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(BATCH)
+	public void readBigIntegerV2(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(bigIntegersV2))) {
+			context.setFormat(MarshallingFormat.V2);
+			for (int pos = 0; pos < BATCH; pos++)
+				blackhole.consume(context.readBigInteger());
+		}
+	}
+
+	/**
+	 * Unmarshals an array of requests.
+	 * 
+	 * @return the unmarshalled requests
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public SampleRequest[] readLengthAndArray() throws IOException {
+		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(requests))) {
+			return context.readLengthAndArray(SampleRequest::new, SampleRequest[]::new);
+		}
+	}
+
+	/**
+	 * Unmarshals an array of requests, directly from an array of bytes.
+	 * 
+	 * @return the unmarshalled requests
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public SampleRequest[] readLengthAndArrayFromArray() throws IOException {
+		try (var context = UnmarshallingContexts.of(requests, 0, requests.length)) {
+			return context.readLengthAndArray(SampleRequest::new, SampleRequest[]::new);
+		}
+	}
+
+	/**
+	 * Unmarshals an indexed array of requests, directly from an array of bytes.
+	 * 
+	 * @return the unmarshalled requests
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public SampleRequest[] readIndexedArrayFromArray() throws IOException {
+		try (var context = UnmarshallingContexts.of(indexedRequests, 0, indexedRequests.length)) {
+			return context.readIndexedArray().toArray(SampleRequest::new, SampleRequest[]::new);
+		}
+	}
+
+	/**
+	 * Unmarshals an indexed array of requests, directly from an array of bytes,
+	 * in parallel in the common pool.
+	 * 
+	 * @return the unmarshalled requests
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public SampleRequest[] readIndexedArrayFromArrayInParallel() throws IOException {
+		try (var context = UnmarshallingContexts.of(indexedRequests, 0, indexedRequests.length)) {
+			return context.readIndexedArray().toArray(SampleRequest::new, SampleRequest[]::new, ForkJoinPool.commonPool());
+		}
+	}
+
+	/**
+	 * Unmarshals only the last request of an indexed array, directly from an array of bytes.
+	 * 
+	 * @return the last request
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark
+	public SampleRequest readLastOfIndexedArrayFromArray() throws IOException {
+		try (var context = UnmarshallingContexts.of(indexedRequests, 0, indexedRequests.length)) {
+			var array = context.readIndexedArray();
+			return array.get(array.length() - 1, SampleRequest::new);
+		}
+	}
+
+	/**
+	 * Unmarshals requests one after the other, directly from an array of bytes
+	 * holding all of them, as after framing them into a single message.
+	 * 
+	 * @param blackhole the sink of the unmarshalled requests
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public void readRequestsFromArray(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.of(requestsOneAfterTheOther, 0, requestsOneAfterTheOther.length)) {
+			for (int pos = 0; pos < REQUESTS; pos++)
+				blackhole.consume(new SampleRequest(context));
+		}
+	}
+
+	/**
+	 * Unmarshals requests one after the other, from an incremental context fed
+	 * with chunks of bytes as they would arrive from the network.
+	 * 
+	 * @param blackhole the sink of the unmarshalled requests
+	 * @throws IOException if unmarshalling fails
+	 */
+	@Benchmark @OperationsPerInvocation(REQUESTS)
+	public void readRequestsIncrementally(Blackhole blackhole) throws IOException {
+		try (var context = UnmarshallingContexts.incremental()) {
+			for (int start = 0; start < requestsOneAfterTheOther.length; start += CHUNK) {
+				context.feed(ByteBuffer.wrap(requestsOneAfterTheOther, start, Math.min(CHUNK, requestsOneAfterTheOther.length - start)));
+
+				SampleRequest request;
+				while ((request = context.tryRead(SampleRequest::new)) != null)
+					blackhole.consume(request);
+			}
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.processor;
+
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+
+import io.hotmoka.marshalling.api.Marshalled;
+import io.hotmoka.marshalling.processor.internal.MarshallersGenerator;
+
+/**
+ * An annotation processor that generates the marshalling code of the records
+ * annotated as {@link Marshalled}. The generated code uses no reflection: it consists
+ * of straight-line calls to the methods of the marshalling and unmarshalling contexts,
+ * one per component of the record.
+ */
+@SupportedAnnotationTypes("io.hotmoka.marshalling.api.Marshalled")
+public class MarshallingProcessor extends AbstractProcessor {
+
+	/**
+	 * Creates the annotation processor.
+	 */
+	public MarshallingProcessor() {}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		var generator = new MarshallersGenerator(processingEnv);
+		for (var element: roundEnv.getElementsAnnotatedWith(Marshalled.class))
+			generator.generate(element);
+
+		return true;
+	}
+}
@@ -0,0 +1,322 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.processor.internal;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+import io.hotmoka.marshalling.api.Compact;
+import io.hotmoka.marshalling.api.Marshalled;
+import io.hotmoka.marshalling.api.Shared;
+
+/**
+ * A generator of the marshalling code of the records annotated as {@link Marshalled}.
+ * For a record {@code R}, it generates a class {@code RMarshallers} in the same package;
+ * for a record {@code R} nested inside {@code O}, the generated class is {@code O_RMarshallers}.
+ * Since that name might clash with the class generated for a top-level record {@code O_R},
+ * or with any other class, clashes are reported as errors.
+ */
+public class MarshallersGenerator {
+
+	/**
+	 * The environment of the annotation processor.
+	 */
+	private final ProcessingEnvironment env;
+
+	/**
+	 * The fully-qualified names of the classes generated so far.
+	 */
+	private final Set<String> generated = new HashSet<>();
+
+	/**
+	 * The encoding of a component of a record.
+	 * 
+	 * @param write the statement that marshals the component from {@code value} into {@code context}
+	 * @param read the expression that unmarshals the component from {@code context}
+	 */
+	private record Encoding(String write, String read) {}
+
+	/**
+	 * Creates a generator.
+	 * 
+	 * @param env the environment of the annotation processor
+	 */
+	public MarshallersGenerator(ProcessingEnvironment env) {
+		this.env = env;
+	}
+
+	/**
+	 * Generates the marshalling code of the given element. Errors are reported
+	 * through the messager of the annotation processor.
+	 * 
+	 * @param element the element, annotated as {@link Marshalled}
+	 */
+	public void generate(Element element) {
+		if (element.getKind() != ElementKind.RECORD) {
+			error(element, "Only records can be annotated as @Marshalled");
+			return;
+		}
+
+		var record = (TypeElement) element;
+		if (!record.getTypeParameters().isEmpty()) {
+			error(record, "Generic records cannot be annotated as @Marshalled");
+			return;
+		}
+
+		if (record.getModifiers().contains(Modifier.PRIVATE)) {
+			error(record, "Private records cannot be annotated as @Marshalled");
+			return;
+		}
+
+		// the generated class refers to the record through its enclosing classes, that must be accessible as well
+		for (var enclosing = record.getEnclosingElement(); enclosing.getKind() != ElementKind.PACKAGE; enclosing = enclosing.getEnclosingElement()) {
+			if (!(enclosing instanceof TypeElement)) {
+				error(record, "Local records cannot be annotated as @Marshalled");
+				return;
+			}
+			else if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+				error(record, "Records nested in private classes cannot be annotated as @Marshalled");
+				return;
+			}
+		}
+
+		// all components are checked, so that all their errors are reported
+		var encodings = new ArrayList<Encoding>();
+		for (var component: record.getRecordComponents())
+			encodings.add(encodingOf(component));
+
+		if (encodings.contains(null))
+			return;
+
+		try {
+			write(record, encodings);
+		}
+		catch (IOException e) {
+			error(record, "Cannot generate the marshallers: " + e.getMessage());
+		}
+	}
+
+	private void write(TypeElement record, Iterable<Encoding> encodings) throws IOException {
+		String packageName = env.getElementUtils().getPackageOf(record).getQualifiedName().toString();
+		String className = marshallersName(record);
+		String recordName = record.getQualifiedName().toString();
+		String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+		if (!generated.add(qualifiedName) || env.getElementUtils().getTypeElement(qualifiedName) != null) {
+			error(record, "The marshallers of this record clash with another class named " + qualifiedName);
+			return;
+		}
+
+		try (var out = new PrintWriter(env.getFiler().createSourceFile(qualifiedName, record).openWriter())) {
+			if (!packageName.isEmpty()) {
+				out.println("package " + packageName + ";");
+				out.println();
+			}
+
+			out.println("/**");
+			out.println(" * Marshalling code of {@link " + recordName + "}, generated at compilation time.");
+			out.println(" */");
+			out.println((record.getModifiers().contains(Modifier.PUBLIC) ? "public " : "") + "final class " + className + " {");
+			out.println();
+			out.println("\tprivate " + className + "() {}");
+			out.println();
+			out.println("\t/**");
+			out.println("\t * The object marshaller of {@link " + recordName + "}.");
+			out.println("\t */");
+			out.println("\tpublic final static io.hotmoka.marshalling.api.ObjectMarshaller<" + recordName + "> MARSHALLER = new io.hotmoka.marshalling.api.ObjectMarshaller<>() {");
+			out.println();
+			out.println("\t\t@Override");
+			out.println("\t\tpublic Class<" + recordName + "> clazz() {");
+			out.println("\t\t\treturn " + recordName + ".class;");
+			out.println("\t\t}");
+			out.println();
+			out.println("\t\t@Override");
+			out.println("\t\tpublic void write(" + recordName + " value, io.hotmoka.marshalling.api.MarshallingContext context) throws java.io.IOException {");
+			out.println("\t\t\tinto(value, context);");
+			out.println("\t\t}");
+			out.println("\t};");
+			out.println();
+			out.println("\t/**");
+			out.println("\t * The object unmarshaller of {@link " + recordName + "}.");
+			out.println("\t */");
+			out.println("\tpublic final static io.hotmoka.marshalling.api.ObjectUnmarshaller<" + recordName + "> UNMARSHALLER = new io.hotmoka.marshalling.api.ObjectUnmarshaller<>() {");
+			out.println();
+			out.println("\t\t@Override");
+			out.println("\t\tpublic Class<" + recordName + "> clazz() {");
+			out.println("\t\t\treturn " + recordName + ".class;");
+			out.println("\t\t}");
+			out.println();
+			out.println("\t\t@Override");
+			out.println("\t\tpublic " + recordName + " read(io.hotmoka.marshalling.api.UnmarshallingContext context) throws java.io.IOException {");
+			out.println("\t\t\treturn from(context);");
+			out.println("\t\t}");
+			out.println("\t};");
+			out.println();
+			out.println("\t/**");
+			out.println("\t * Marshals the given value into the given context.");
+			out.println("\t * ");
+			out.println("\t * @param value the value");
+			out.println("\t * @param context the context");
+			out.println("\t * @throws java.io.IOException if the value cannot be marshalled");
+			out.println("\t */");
+			out.println("\tpublic static void into(" + recordName + " value, io.hotmoka.marshalling.api.MarshallingContext context) throws java.io.IOException {");
+			for (var encoding: encodings)
+				out.println("\t\t" + encoding.write + ";");
+			out.println("\t}");
+			out.println();
+			out.println("\t/**");
+			out.println("\t * Unmarshals a value from the given context.");
+			out.println("\t * ");
+			out.println("\t * @param context the context");
+			out.println("\t * @return the value");
+			out.println("\t * @throws java.io.IOException if the value cannot be unmarshalled");
+			out.println("\t */");
+			out.println("\tpublic static " + recordName + " from(io.hotmoka.marshalling.api.UnmarshallingContext context) throws java.io.IOException {");
+			out.print("\t\treturn new " + recordName + "(");
+			// the arguments are evaluated from left to right, hence in order of marshalling
+			String separator = "";
+			for (var encoding: encodings) {
+				out.println(separator);
+				out.print("\t\t\t" + encoding.read);
+				separator = ",";
+			}
+			out.println(");");
+			out.println("\t}");
+			out.println();
+			out.println("\t/**");
+			out.println("\t * Yields a registry like the given one, with the object marshaller and unmarshaller");
+			out.println("\t * of {@link " + recordName + "}.");
+			out.println("\t * ");
+			out.println("\t * @param registry the registry");
+			out.println("\t * @return the resulting registry");
+			out.println("\t */");
+			out.println("\tpublic static io.hotmoka.marshalling.api.MarshallerRegistry register(io.hotmoka.marshalling.api.MarshallerRegistry registry) {");
+			out.println("\t\treturn registry.withMarshaller(MARSHALLER).withUnmarshaller(UNMARSHALLER);");
+			out.println("\t}");
+			out.println("}");
+		}
+	}
+
+	/**
+	 * Yields the encoding of the given component.
+	 * 
+	 * @param component the component
+	 * @return the encoding, or {@code null} if the component cannot be marshalled, in which case an error is reported
+	 */
+	private Encoding encodingOf(RecordComponentElement component) {
+		String name = component.getSimpleName().toString();
+		String value = "value." + name + "()";
+		TypeMirror type = component.asType();
+		boolean compact = component.getAnnotation(Compact.class) != null;
+		boolean shared = component.getAnnotation(Shared.class) != null;
+
+		if (compact && type.getKind() != TypeKind.INT && type.getKind() != TypeKind.LONG) {
+			error(component, "Only int and long components can be annotated as @Compact");
+			return null;
+		}
+
+		if (shared && !isClass(type, "java.lang.String")) {
+			error(component, "Only String components can be annotated as @Shared");
+			return null;
+		}
+
+		switch (type.getKind()) {
+		case BOOLEAN: return new Encoding("context.writeBoolean(" + value + ")", "context.readBoolean()");
+		case BYTE: return new Encoding("context.writeByte(" + value + ")", "context.readByte()");
+		case CHAR: return new Encoding("context.writeChar(" + value + ")", "context.readChar()");
+		case SHORT: return new Encoding("context.writeShort(" + value + ")", "context.readShort()");
+		case INT: return compact ? new Encoding("context.writeCompactInt(" + value + ")", "context.readCompactInt()") : new Encoding("context.writeInt(" + value + ")", "context.readInt()");
+		case LONG: return compact ? new Encoding("context.writeCompactLong(" + value + ")", "context.readCompactLong()") : new Encoding("context.writeLong(" + value + ")", "context.readLong()");
+		case FLOAT: return new Encoding("context.writeFloat(" + value + ")", "context.readFloat()");
+		case DOUBLE: return new Encoding("context.writeDouble(" + value + ")", "context.readDouble()");
+		case ARRAY:
+			switch (((ArrayType) type).getComponentType().getKind()) {
+			case BYTE: return new Encoding("context.writeLengthAndBytes(" + value + ")", "context.readLengthAndBytes(\"Mismatched length of component " + name + "\")");
+			case SHORT: return new Encoding("context.writeShortArray(" + value + ")", "context.readShortArray()");
+			case INT: return new Encoding("context.writeIntArray(" + value + ")", "context.readIntArray()");
+			case LONG: return new Encoding("context.writeLongArray(" + value + ")", "context.readLongArray()");
+			case DOUBLE: return new Encoding("context.writeDoubleArray(" + value + ")", "context.readDoubleArray()");
+			default: break;
+			}
+			break;
+		case DECLARED:
+			if (isClass(type, "java.lang.String"))
+				return shared ? new Encoding("context.writeStringShared(" + value + ")", "context.readStringShared()") : new Encoding("context.writeStringUnshared(" + value + ")", "context.readStringUnshared()");
+			else if (isClass(type, "java.math.BigInteger"))
+				return new Encoding("context.writeBigInteger(" + value + ")", "context.readBigInteger()");
+
+			var element = (TypeElement) ((DeclaredType) type).asElement();
+			if (element.getKind() == ElementKind.RECORD && element.getAnnotation(Marshalled.class) != null) {
+				String packageName = env.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+				String marshallers = packageName.isEmpty() ? marshallersName(element) : packageName + "." + marshallersName(element);
+				return new Encoding(marshallers + ".into(" + value + ", context)", marshallers + ".from(context)");
+			}
+
+			break;
+		default:
+			break;
+		}
+
+		error(component, "Components of type " + type + " cannot be marshalled");
+		return null;
+	}
+
+	/**
+	 * Determines if the given type is the given class.
+	 * 
+	 * @param type the type
+	 * @param className the fully-qualified name of the class
+	 * @return true if and only if {@code type} is {@code className}
+	 */
+	private boolean isClass(TypeMirror type, String className) {
+		var element = env.getElementUtils().getTypeElement(className);
+		return element != null && env.getTypeUtils().isSameType(type, element.asType());
+	}
+
+	/**
+	 * Yields the simple name of the class generated for the given record.
+	 * 
+	 * @param record the record
+	 * @return the simple name
+	 */
+	private static String marshallersName(TypeElement record) {
+		String name = record.getSimpleName().toString();
+		for (var enclosing = record.getEnclosingElement(); enclosing instanceof TypeElement te; enclosing = te.getEnclosingElement())
+			name = te.getSimpleName() + "_" + name;
+
+		return name + "Marshallers";
+	}
+
+	private void error(Element element, String message) {
+		env.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
@@ -0,0 +1,26 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+/**
+ * This module provides an annotation processor that generates, at compilation time,
+ * the marshalling code of the records annotated as {@link io.hotmoka.marshalling.api.Marshalled}.
+ */
+module io.hotmoka.marshalling.processor {
+	exports io.hotmoka.marshalling.processor;
+	requires io.hotmoka.marshalling.api;
+	requires java.compiler;
+	provides javax.annotation.processing.Processor with io.hotmoka.marshalling.processor.MarshallingProcessor;
+}
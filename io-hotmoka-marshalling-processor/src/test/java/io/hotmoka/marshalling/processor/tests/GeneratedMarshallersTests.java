@@ -0,0 +1,267 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.processor.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.hotmoka.marshalling.processor.MarshallingProcessor;
+import io.hotmoka.testing.AbstractLoggedTests;
+
+public class GeneratedMarshallersTests extends AbstractLoggedTests {
+
+	private final static String PERSON = """
+		package people;
+
+		import java.math.BigInteger;
+
+		import io.hotmoka.marshalling.api.Compact;
+		import io.hotmoka.marshalling.api.Marshalled;
+		import io.hotmoka.marshalling.api.Shared;
+
+		@Marshalled
+		public record Person(@Shared String name, String surname, @Compact int yearOfBirth, long id, BigInteger balance,
+				boolean active, double height, byte[] avatar, long[] payments, Address address) {
+
+			@Marshalled
+			public record Address(@Shared String street, @Compact long number, char country) {}
+		}
+		""";
+
+	/**
+	 * Marshals an address and a person through the generated code and unmarshals them back.
+	 * It fails if the marshalled bytes differ from those of the equivalent hand-written code
+	 * or if the unmarshalled objects differ from the original ones.
+	 */
+	private final static String CHECK = """
+		package people;
+
+		import java.io.ByteArrayInputStream;
+		import java.io.ByteArrayOutputStream;
+		import java.math.BigInteger;
+		import java.util.Arrays;
+
+		import io.hotmoka.marshalling.MarshallerRegistries;
+		import io.hotmoka.marshalling.MarshallingContexts;
+		import io.hotmoka.marshalling.UnmarshallingContexts;
+
+		public class Check implements Runnable {
+
+			@Override
+			public void run() {
+				try {
+					check();
+				}
+				catch (java.io.IOException e) {
+					throw new java.io.UncheckedIOException(e);
+				}
+			}
+
+			private static void check() throws java.io.IOException {
+				var address = new Person.Address("Via Roma", 3L, 'I');
+				var person = new Person("Albert", "Einstein", 1879, -1L, BigInteger.TEN.pow(30), true, 1.75, new byte[] { 1, 2, 3 }, new long[] { 4L, -5L }, address);
+				var registry = Person_AddressMarshallers.register(MarshallerRegistries.empty());
+
+				var baos = new ByteArrayOutputStream();
+				try (var context = MarshallingContexts.of(baos)) {
+					context.setMarshallerRegistry(registry);
+					context.writeObject(Person.Address.class, address);
+					PersonMarshallers.into(person, context);
+				}
+
+				try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(baos.toByteArray()))) {
+					context.setMarshallerRegistry(registry);
+					if (!address.equals(context.readObject(Person.Address.class)))
+						throw new AssertionError("address mismatch");
+
+					var actual = PersonMarshallers.from(context);
+					if (!person.name().equals(actual.name()) || !person.surname().equals(actual.surname())
+							|| person.yearOfBirth() != actual.yearOfBirth() || person.id() != actual.id()
+							|| !person.balance().equals(actual.balance()) || person.active() != actual.active()
+							|| person.height() != actual.height() || !Arrays.equals(person.avatar(), actual.avatar())
+							|| !Arrays.equals(person.payments(), actual.payments()) || !person.address().equals(actual.address())
+							|| context.available() != 0)
+						throw new AssertionError("person mismatch");
+				}
+
+				var handWritten = new ByteArrayOutputStream();
+				try (var context = MarshallingContexts.of(handWritten)) {
+					// the address
+					context.writeStringShared("Via Roma");
+					context.writeCompactLong(3L);
+					context.writeChar('I');
+
+					// the person, ending with its address
+					context.writeStringShared("Albert");
+					context.writeStringUnshared("Einstein");
+					context.writeCompactInt(1879);
+					context.writeLong(-1L);
+					context.writeBigInteger(BigInteger.TEN.pow(30));
+					context.writeBoolean(true);
+					context.writeDouble(1.75);
+					context.writeLengthAndBytes(new byte[] { 1, 2, 3 });
+					context.writeLongArray(new long[] { 4L, -5L });
+					context.writeStringShared("Via Roma");
+					context.writeCompactLong(3L);
+					context.writeChar('I');
+				}
+
+				if (!Arrays.equals(handWritten.toByteArray(), baos.toByteArray()))
+					throw new AssertionError("the generated code does not use the annotated encodings");
+			}
+		}
+		""";
+
+	/**
+	 * Compiles the given sources with the annotation processor.
+	 * 
+	 * @param dir the directory where sources and compiled classes are written
+	 * @param diagnostics the collector of the diagnostics of the compiler
+	 * @param sources the sources, each starting with its package declaration
+	 * @return true if and only if compilation succeeded
+	 * @throws IOException if the sources cannot be written
+	 */
+	private static boolean compile(Path dir, DiagnosticCollector<JavaFileObject> diagnostics, String... sources) throws IOException {
+		var files = new ArrayList<Path>();
+		for (var source: sources) {
+			String packageName = source.substring("package ".length(), source.indexOf(';'));
+			int start = source.indexOf(" record ") >= 0 && source.indexOf(" class ") < 0 ? source.indexOf(" record ") + " record ".length() : source.indexOf(" class ") + " class ".length();
+			String className = source.substring(start).split("[ (<{]")[0];
+			var file = dir.resolve(packageName).resolve(className + ".java");
+			Files.createDirectories(file.getParent());
+			Files.writeString(file, source);
+			files.add(file);
+		}
+
+		// the classes of the marshalling modules are on the module path when the tests run
+		String classpath = System.getProperty("java.class.path") + File.pathSeparator + System.getProperty("jdk.module.path", "");
+		var compiler = ToolProvider.getSystemJavaCompiler();
+		try (var fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+			var task = compiler.getTask(null, fileManager, diagnostics, List.of("-d", dir.toString(), "-classpath", classpath),
+				null, fileManager.getJavaFileObjectsFromPaths(files));
+			task.setProcessors(List.of(new MarshallingProcessor()));
+			return task.call();
+		}
+	}
+
+    @Test
+    @DisplayName("generated marshallers write the components in order, with the annotated encodings")
+    public void generatedMarshallersUseAnnotatedEncodings(@TempDir Path dir) throws Exception {
+    	var diagnostics = new DiagnosticCollector<JavaFileObject>();
+    	assertTrue(compile(dir, diagnostics, PERSON, CHECK), () -> diagnostics.getDiagnostics().toString());
+
+    	// the marshalling module is not read by the module of the tests, hence its classes are loaded from the module path
+    	var urls = new ArrayList<URL>();
+    	urls.add(dir.toUri().toURL());
+    	for (var entry: System.getProperty("jdk.module.path", "").split(File.pathSeparator))
+    		if (!entry.isEmpty())
+    			urls.add(Path.of(entry).toUri().toURL());
+
+    	try (var loader = new URLClassLoader(urls.toArray(URL[]::new), getClass().getClassLoader())) {
+    		((Runnable) loader.loadClass("people.Check").getConstructor().newInstance()).run();
+    	}
+    }
+
+    @Test
+    @DisplayName("misplaced annotations and unsupported components are reported as errors")
+    public void misplacedAnnotationsAreReported(@TempDir Path dir) throws IOException {
+    	var diagnostics = new DiagnosticCollector<JavaFileObject>();
+    	assertFalse(compile(dir, diagnostics, """
+    		package wrong;
+
+    		import io.hotmoka.marshalling.api.Compact;
+    		import io.hotmoka.marshalling.api.Marshalled;
+    		import io.hotmoka.marshalling.api.Shared;
+
+    		@Marshalled
+    		public record Wrong(@Compact String name, @Shared int age, Object other) {}
+    		"""));
+
+    	var messages = diagnostics.getDiagnostics().stream().map(diagnostic -> diagnostic.getMessage(null)).toList();
+    	assertEquals(List.of("Only int and long components can be annotated as @Compact",
+    		"Only String components can be annotated as @Shared",
+    		"Components of type java.lang.Object cannot be marshalled"), messages);
+    }
+
+    @Test
+    @DisplayName("records nested in private classes are reported as errors")
+    public void recordsInPrivateClassesAreReported(@TempDir Path dir) throws IOException {
+    	var diagnostics = new DiagnosticCollector<JavaFileObject>();
+    	assertFalse(compile(dir, diagnostics, """
+    		package wrong;
+
+    		import io.hotmoka.marshalling.api.Marshalled;
+
+    		public class Outer {
+
+    			private static class Hidden {
+
+    				@Marshalled
+    				public record Inner(int x) {}
+    			}
+    		}
+    		"""));
+
+    	var messages = diagnostics.getDiagnostics().stream().map(diagnostic -> diagnostic.getMessage(null)).toList();
+    	assertEquals(List.of("Records nested in private classes cannot be annotated as @Marshalled"), messages);
+    }
+
+    @Test
+    @DisplayName("clashing names of generated classes are reported as errors")
+    public void clashingNamesAreReported(@TempDir Path dir) throws IOException {
+    	var diagnostics = new DiagnosticCollector<JavaFileObject>();
+    	assertFalse(compile(dir, diagnostics, """
+    		package wrong;
+
+    		import io.hotmoka.marshalling.api.Marshalled;
+
+    		public class Outer {
+
+    			@Marshalled
+    			public record Inner(int x) {}
+    		}
+    		""", """
+    		package wrong;
+
+    		import io.hotmoka.marshalling.api.Marshalled;
+
+    		@Marshalled
+    		public record Outer_Inner(int x) {}
+    		"""));
+
+    	var messages = diagnostics.getDiagnostics().stream().map(diagnostic -> diagnostic.getMessage(null)).toList();
+    	assertEquals(List.of("The marshallers of this record clash with another class named wrong.Outer_InnerMarshallers"), messages);
+    }
+}
@@ -17,6 +17,7 @@ limitations under the License.
 package io.hotmoka.marshalling;
 
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 
 import io.hotmoka.marshalling.internal.MarshallingContextImpl;
 
@@ -33,4 +34,30 @@ public abstract class AbstractMarshallingContext extends MarshallingContextImpl
 	protected AbstractMarshallingContext(OutputStream oos) {
 		super(oos);
 	}
+
+	/**
+	 * Creates a marshalling context for the given output stream, that buffers
+	 * the marshalled bytes and writes them into the output stream only when the buffer
+	 * is full or when the context is flushed or closed.
+	 * 
+	 * @param oos the output stream
+	 * @param bufferSize the size of the buffer, in bytes
+	 * @throws IllegalArgumentException if {@code bufferSize} is not positive
+	 */
+	protected AbstractMarshallingContext(OutputStream oos, int bufferSize) {
+		super(oos, bufferSize);
+	}
+
+	/**
+	 * Creates a marshalling context for the given channel, that stages the marshalled
+	 * bytes in a direct buffer and writes them into the channel when the buffer is full
+	 * or when the context is flushed or closed.
+	 * 
+	 * @param channel the channel, which must be in blocking mode
+	 * @param bufferSize the size of the buffer, in bytes
+	 * @throws IllegalArgumentException if {@code bufferSize} is smaller than 8
+	 */
+	protected AbstractMarshallingContext(WritableByteChannel channel, int bufferSize) {
+		super(channel, bufferSize);
+	}
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ limitations under the License.
 package io.hotmoka.marshalling;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import io.hotmoka.marshalling.internal.UnmarshallingContextImpl;
 
@@ -34,4 +35,27 @@ public abstract class AbstractUnmarshallingContext extends UnmarshallingContextI
 	protected AbstractUnmarshallingContext(InputStream is)	 {
 		super(is);
 	}
+
+	/**
+	 * Creates an unmarshalling context that reads the given portion of an array of bytes.
+	 * 
+	 * @param bytes the array of bytes
+	 * @param offset the offset of the first byte to read
+	 * @param length the number of bytes that can be read
+	 * @throws IndexOutOfBoundsException if {@code offset} and {@code length} do not
+	 *                                   identify a portion of {@code bytes}
+	 */
+	protected AbstractUnmarshallingContext(byte[] bytes, int offset, int length) {
+		super(bytes, offset, length);
+	}
+
+	/**
+	 * Creates an unmarshalling context that reads the given buffer, from its current position
+	 * up to its limit. The byte order of the buffer gets set to big-endian.
+	 * 
+	 * @param buffer the buffer
+	 */
+	protected AbstractUnmarshallingContext(ByteBuffer buffer) {
+		super(buffer);
+	}
 }
\ No newline at end of file
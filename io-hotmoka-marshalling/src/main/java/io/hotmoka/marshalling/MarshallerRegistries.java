@@ -0,0 +1,40 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling;
+
+import io.hotmoka.marshalling.api.MarshallerRegistry;
+import io.hotmoka.marshalling.internal.MarshallerRegistryImpl;
+
+/**
+ * Providers of registries of object marshallers and unmarshallers, that can be
+ * shared among marshalling and unmarshalling contexts.
+ */
+public final class MarshallerRegistries {
+
+	private MarshallerRegistries() {}
+
+	/**
+	 * Yields the registry without object marshallers nor unmarshallers. Larger registries
+	 * can be built from it, through {@link MarshallerRegistry#withMarshaller(io.hotmoka.marshalling.api.ObjectMarshaller)}
+	 * and {@link MarshallerRegistry#withUnmarshaller(io.hotmoka.marshalling.api.ObjectUnmarshaller)}.
+	 * 
+	 * @return the empty registry
+	 */
+	public static MarshallerRegistry empty() {
+		return MarshallerRegistryImpl.EMPTY;
+	}
+}
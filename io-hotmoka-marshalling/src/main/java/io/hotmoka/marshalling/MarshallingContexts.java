@@ -17,8 +17,12 @@ limitations under the License.
 package io.hotmoka.marshalling;
 
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
+import io.hotmoka.marshalling.api.ByteBufferMarshallingContext;
 import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.internal.ByteBufferMarshallingContextImpl;
 import io.hotmoka.marshalling.internal.MarshallingContextImpl;
 
 /**
@@ -26,6 +30,11 @@ import io.hotmoka.marshalling.internal.MarshallingContextImpl;
  */
 public final class MarshallingContexts {
 
+	/**
+	 * The default size of the buffer of the marshalling contexts for channels.
+	 */
+	private final static int DEFAULT_CHANNEL_BUFFER_SIZE = 8192;
+
 	private MarshallingContexts() {}
 
 	/**
@@ -37,4 +46,76 @@ public final class MarshallingContexts {
 	public static MarshallingContext of(OutputStream os) {
 		return new MarshallingContextImpl(os);
 	}
+
+	/**
+	 * Yields a marshalling context that writes to the given output stream through a buffer
+	 * of the given size. The marshalled bytes reach the output stream only when the buffer
+	 * is full or when the context is flushed or closed. Hence the context must be flushed or closed
+	 * before using the bytes written into the output stream.
+	 * 
+	 * @param os the output stream
+	 * @param bufferSize the size of the buffer, in bytes
+	 * @return the marshalling context
+	 * @throws IllegalArgumentException if {@code bufferSize} is not positive
+	 */
+	public static MarshallingContext of(OutputStream os, int bufferSize) {
+		return new MarshallingContextImpl(os, bufferSize);
+	}
+
+	/**
+	 * Yields a marshalling context that writes into the given buffer, starting at its
+	 * current position, and advances that position. The byte order of the buffer gets set
+	 * to big-endian. The buffer does not grow: the marshalling methods of the context
+	 * throw an {@link java.io.IOException} if the buffer overflows.
+	 * 
+	 * @param buffer the buffer
+	 * @return the marshalling context
+	 */
+	public static ByteBufferMarshallingContext of(ByteBuffer buffer) {
+		return new ByteBufferMarshallingContextImpl(buffer);
+	}
+
+	/**
+	 * Yields a marshalling context that writes into a buffer that grows as needed.
+	 * The marshalled bytes can be accessed through {@link ByteBufferMarshallingContext#toByteBuffer()},
+	 * without copying them.
+	 * 
+	 * @param initialCapacity the initial capacity of the buffer, in bytes
+	 * @param direct true if and only if the buffer must be direct, rather than on the heap
+	 * @return the marshalling context
+	 * @throws IllegalArgumentException if {@code initialCapacity} is negative
+	 */
+	public static ByteBufferMarshallingContext ofGrowableBuffer(int initialCapacity, boolean direct) {
+		return new ByteBufferMarshallingContextImpl(initialCapacity, direct);
+	}
+
+	/**
+	 * Yields a marshalling context that writes into the given channel, through
+	 * a direct buffer of 8 kilobytes. Closing the context closes the channel.
+	 * 
+	 * @param channel the channel, which must be in blocking mode
+	 * @return the marshalling context
+	 */
+	public static MarshallingContext of(WritableByteChannel channel) {
+		return of(channel, DEFAULT_CHANNEL_BUFFER_SIZE);
+	}
+
+	/**
+	 * Yields a marshalling context that writes into the given channel. The marshalled
+	 * bytes are staged in a direct buffer of the given size, reused for the whole life of the context,
+	 * which is written into the channel when it is full or when the context is flushed or closed.
+	 * Hence the context must be flushed or closed before using the bytes written into the channel.
+	 * Arrays of bytes at least as large as the buffer, such as those written by
+	 * {@link MarshallingContext#writeBytes(byte[])} and {@link MarshallingContext#writeLengthAndBytes(byte[])},
+	 * are not copied into the buffer but written into the channel together with the buffer,
+	 * through a gathering write if the channel supports it. Closing the context closes the channel.
+	 * 
+	 * @param channel the channel, which must be in blocking mode
+	 * @param bufferSize the size of the buffer, in bytes
+	 * @return the marshalling context
+	 * @throws IllegalArgumentException if {@code bufferSize} is smaller than 8
+	 */
+	public static MarshallingContext of(WritableByteChannel channel, int bufferSize) {
+		return new MarshallingContextImpl(channel, bufferSize);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling;
+
+import java.lang.invoke.MethodHandles.Lookup;
+
+import io.hotmoka.marshalling.api.MarshallerRegistry;
+import io.hotmoka.marshalling.api.ObjectMarshaller;
+import io.hotmoka.marshalling.api.ObjectUnmarshaller;
+import io.hotmoka.marshalling.internal.RecordCodec;
+import io.hotmoka.marshalling.internal.RecordMarshallerImpl;
+import io.hotmoka.marshalling.internal.RecordUnmarshallerImpl;
+
+/**
+ * Providers of object marshallers and unmarshallers of records, built at run time.
+ * They are meant for records that cannot be annotated as {@link io.hotmoka.marshalling.api.Marshalled}
+ * and yield the same bytes as the marshallers generated for such annotated records: the components
+ * are marshalled in order, according to their type and to their {@link io.hotmoka.marshalling.api.Compact}
+ * and {@link io.hotmoka.marshalling.api.Shared} annotations. The components are inspected only
+ * once, when the marshallers are built, so that marshalling and unmarshalling do not use reflection.
+ */
+public final class RecordMarshallers {
+
+	private RecordMarshallers() {}
+
+	/**
+	 * Yields an object marshaller for the given class of records.
+	 * 
+	 * @param <R> the type of the records
+	 * @param clazz the class of the records
+	 * @param lookup the lookup used to access the accessors and the canonical constructor of the records;
+	 *               {@link java.lang.invoke.MethodHandles#publicLookup()} is enough for public records
+	 *               in exported packages
+	 * @return the object marshaller
+	 * @throws IllegalArgumentException if {@code clazz} has components that cannot be marshalled
+	 *                                  or that cannot be accessed through {@code lookup}
+	 */
+	public static <R extends Record> ObjectMarshaller<R> marshallerOf(Class<R> clazz, Lookup lookup) {
+		return new RecordMarshallerImpl<>(clazz, RecordCodec.of(clazz, lookup));
+	}
+
+	/**
+	 * Yields an object unmarshaller for the given class of records.
+	 * 
+	 * @param <R> the type of the records
+	 * @param clazz the class of the records
+	 * @param lookup the lookup used to access the accessors and the canonical constructor of the records;
+	 *               {@link java.lang.invoke.MethodHandles#publicLookup()} is enough for public records
+	 *               in exported packages
+	 * @return the object unmarshaller
+	 * @throws IllegalArgumentException if {@code clazz} has components that cannot be unmarshalled
+	 *                                  or that cannot be accessed through {@code lookup}
+	 */
+	public static <R extends Record> ObjectUnmarshaller<R> unmarshallerOf(Class<R> clazz, Lookup lookup) {
+		return new RecordUnmarshallerImpl<>(clazz, RecordCodec.of(clazz, lookup));
+	}
+
+	/**
+	 * Yields a registry that extends the given one with an object marshaller and
+	 * an object unmarshaller for the given class of records.
+	 * 
+	 * @param <R> the type of the records
+	 * @param registry the registry to extend
+	 * @param clazz the class of the records
+	 * @param lookup the lookup used to access the accessors and the canonical constructor of the records;
+	 *               {@link java.lang.invoke.MethodHandles#publicLookup()} is enough for public records
+	 *               in exported packages
+	 * @return the extended registry
+	 * @throws IllegalArgumentException if {@code clazz} has components that cannot be marshalled
+	 *                                  or that cannot be accessed through {@code lookup}
+	 */
+	public static <R extends Record> MarshallerRegistry register(MarshallerRegistry registry, Class<R> clazz, Lookup lookup) {
+		var codec = RecordCodec.of(clazz, lookup);
+		return registry.withMarshaller(new RecordMarshallerImpl<>(clazz, codec)).withUnmarshaller(new RecordUnmarshallerImpl<>(clazz, codec));
+	}
+}
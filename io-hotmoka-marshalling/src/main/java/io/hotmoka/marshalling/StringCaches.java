@@ -0,0 +1,60 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling;
+
+import io.hotmoka.marshalling.api.StringCache;
+import io.hotmoka.marshalling.internal.StringCacheImpl;
+
+/**
+ * Providers of caches of strings, that can be shared among unmarshalling contexts.
+ */
+public final class StringCaches {
+
+	private StringCaches() {}
+
+	/**
+	 * The default maximal length of the UTF-8 encoding of the strings kept in a cache.
+	 */
+	public final static int DEFAULT_MAX_LENGTH = 256;
+
+	/**
+	 * Yields a cache of strings, that keeps strings whose UTF-8 encoding is at most
+	 * {@link #DEFAULT_MAX_LENGTH} bytes long.
+	 * 
+	 * @param capacity the maximal number of strings kept in the cache; this is rounded
+	 *                 up to a power of two
+	 * @return the cache
+	 * @throws IllegalArgumentException if {@code capacity} is not positive or larger than {@code 2^30}
+	 */
+	public static StringCache of(int capacity) {
+		return new StringCacheImpl(capacity, DEFAULT_MAX_LENGTH);
+	}
+
+	/**
+	 * Yields a cache of strings.
+	 * 
+	 * @param capacity the maximal number of strings kept in the cache; this is rounded
+	 *                 up to a power of two
+	 * @param maxLength the maximal length of the UTF-8 encoding of the strings kept in the cache
+	 * @return the cache
+	 * @throws IllegalArgumentException if {@code capacity} is not positive or larger than {@code 2^30},
+	 *                                  or if {@code maxLength} is negative
+	 */
+	public static StringCache of(int capacity, int maxLength) {
+		return new StringCacheImpl(capacity, maxLength);
+	}
+}
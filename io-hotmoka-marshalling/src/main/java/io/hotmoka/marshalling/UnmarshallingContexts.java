@@ -18,8 +18,14 @@ package io.hotmoka.marshalling;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
+import io.hotmoka.marshalling.api.ByteBufferUnmarshallingContext;
+import io.hotmoka.marshalling.api.IncrementalUnmarshallingContext;
 import io.hotmoka.marshalling.api.UnmarshallingContext;
+import io.hotmoka.marshalling.internal.ByteBufferUnmarshallingContextImpl;
+import io.hotmoka.marshalling.internal.IncrementalUnmarshallingContextImpl;
 import io.hotmoka.marshalling.internal.UnmarshallingContextImpl;
 
 /**
@@ -39,4 +45,62 @@ public final class UnmarshallingContexts {
 	public static UnmarshallingContext of(InputStream is) throws IOException {
 		return new UnmarshallingContextImpl(is);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Yields an unmarshalling context that reads the given portion of an array of bytes.
+	 * The bytes are read directly from the array, without any intermediate buffer.
+	 * 
+	 * @param bytes the array of bytes
+	 * @param offset the offset of the first byte to read
+	 * @param length the number of bytes that can be read
+	 * @return the unmarshalling context
+	 * @throws IndexOutOfBoundsException if {@code offset} and {@code length} do not
+	 *                                   identify a portion of {@code bytes}
+	 */
+	public static ByteBufferUnmarshallingContext of(byte[] bytes, int offset, int length) {
+		return new ByteBufferUnmarshallingContextImpl(bytes, offset, length);
+	}
+
+	/**
+	 * Yields an unmarshalling context that reads the given buffer, from its current position
+	 * up to its limit, and advances that position. The byte order of the buffer gets set to big-endian.
+	 * The bytes are read directly from the buffer, without any intermediate buffer.
+	 * 
+	 * @param buffer the buffer
+	 * @return the unmarshalling context
+	 */
+	public static ByteBufferUnmarshallingContext of(ByteBuffer buffer) {
+		return new ByteBufferUnmarshallingContextImpl(buffer);
+	}
+
+	/**
+	 * Yields an unmarshalling context that reads a region of a file, mapped in memory.
+	 * Primitive values are read directly from the mapped memory, hence from the page cache
+	 * of the operating system, and the context can move to known positions of the region
+	 * without reading the bytes in front of them. Closing the context does not close the channel.
+	 * 
+	 * @param channel the channel of the file, which must be open for reading
+	 * @param position the position in the file where the region starts
+	 * @param size the size of the region, in bytes
+	 * @return the unmarshalling context
+	 * @throws IOException if the region cannot be mapped in memory
+	 * @throws IllegalArgumentException if {@code position} or {@code size} are negative or
+	 *                                  if {@code size} is larger than {@link Integer#MAX_VALUE}
+	 */
+	public static ByteBufferUnmarshallingContext of(FileChannel channel, long position, long size) throws IOException {
+		return new ByteBufferUnmarshallingContextImpl(channel, position, size);
+	}
+
+	/**
+	 * Yields an unmarshalling context that is fed with chunks of bytes as they arrive,
+	 * for instance from a non-blocking channel. It never blocks waiting for bytes:
+	 * objects are read only when enough bytes have been fed, without framing them
+	 * into messages of known length. Objects are meant to be read through its try methods;
+	 * its plain read methods must only be used for bytes already fed, since they are not attempted again.
+	 * 
+	 * @return the unmarshalling context, initially without bytes
+	 */
+	public static IncrementalUnmarshallingContext incremental() {
+		return new IncrementalUnmarshallingContextImpl();
+	}
+}
@@ -0,0 +1,35 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A bulk transfer of consecutive elements of an array of primitive values
+ * into or from a big-endian byte buffer, typically through a view of the buffer.
+ */
+interface BulkTransfer {
+
+	/**
+	 * Transfers the given elements of the array.
+	 * 
+	 * @param buffer the buffer, positioned where the first element must be put or got
+	 * @param offset the index, inside the array, of the first element
+	 * @param count the number of elements
+	 */
+	void transfer(ByteBuffer buffer, int offset, int count);
+}
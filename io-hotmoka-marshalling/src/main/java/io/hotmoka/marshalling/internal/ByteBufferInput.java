@@ -0,0 +1,240 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+import io.hotmoka.marshalling.api.StringCache;
+
+/**
+ * An input that reads from a byte buffer, through direct gets of
+ * big-endian primitive values. There is no intermediate buffering
+ * and no stream is involved.
+ */
+final class ByteBufferInput extends Input {
+
+	/**
+	 * The buffer where bytes are read, from its current position up to its limit.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The position of {@link #buffer} where the first readable byte lies.
+	 */
+	private final int start;
+
+	/**
+	 * Creates an input that reads from the given buffer, starting at its current position
+	 * and up to its limit. The byte order of the buffer gets set to big-endian.
+	 * 
+	 * @param buffer the buffer
+	 */
+	ByteBufferInput(ByteBuffer buffer) {
+		this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+		this.start = buffer.position();
+	}
+
+	/**
+	 * Yields the position of the next byte to read.
+	 * 
+	 * @return the position, relative to the first readable byte
+	 */
+	int position() {
+		return buffer.position() - start;
+	}
+
+	/**
+	 * Moves to the given position.
+	 * 
+	 * @param position the position of the next byte to read, relative to the first readable byte
+	 * @throws IllegalArgumentException if {@code position} is negative or beyond the readable bytes
+	 */
+	void seek(int position) {
+		if (position < 0 || position > buffer.limit() - start)
+			throw new IllegalArgumentException("Illegal position " + position);
+
+		buffer.position(start + position);
+	}
+
+	/**
+	 * A reusable array where the encoding of strings is copied before decoding,
+	 * if {@link #buffer} has no accessible backing array.
+	 */
+	private byte[] scratch = new byte[0];
+
+	/**
+	 * Checks that there are at least the given number of bytes still to read.
+	 * 
+	 * @param needed the number of bytes
+	 * @throws EOFException if there are less than {@code needed} bytes still to read
+	 */
+	private void ensure(long needed) throws EOFException {
+		if (buffer.remaining() < needed)
+			throw new EOFException();
+	}
+
+	@Override
+	int available() {
+		return buffer.remaining();
+	}
+
+	@Override
+	byte readByte() throws IOException {
+		ensure(1);
+		return buffer.get();
+	}
+
+	@Override
+	short readShort() throws IOException {
+		ensure(2);
+		return buffer.getShort();
+	}
+
+	@Override
+	char readChar() throws IOException {
+		ensure(2);
+		return buffer.getChar();
+	}
+
+	@Override
+	int readInt() throws IOException {
+		ensure(4);
+		return buffer.getInt();
+	}
+
+	@Override
+	long readLong() throws IOException {
+		ensure(8);
+		return buffer.getLong();
+	}
+
+	@Override
+	float readFloat() throws IOException {
+		ensure(4);
+		return buffer.getFloat();
+	}
+
+	@Override
+	double readDouble() throws IOException {
+		ensure(8);
+		return buffer.getDouble();
+	}
+
+	@Override
+	long readVarLong() throws IOException {
+		// absolute gets avoid updating the position of the buffer at each byte
+		int position = buffer.position(), limit = buffer.limit();
+		long result = 0L;
+
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			if (position == limit)
+				throw new EOFException();
+
+			byte b = buffer.get(position++);
+			result |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				buffer.position(position);
+				return checkLastVarLongByte(b, shift, result);
+			}
+		}
+
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	@Override
+	byte[] readBytes(int length, String mismatchErrorMessage) throws IOException {
+		if (length < 0 || buffer.remaining() < length)
+			throw new IOException(mismatchErrorMessage);
+
+		var bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	@Override
+	String readUTF8(int length, StringCache cache) throws IOException {
+		if (length < 0 || buffer.remaining() < length)
+			throw new IOException("String length mismatch");
+
+		int position = buffer.position();
+		String result;
+
+		if (buffer.hasArray())
+			result = decodeUTF8(buffer.array(), buffer.arrayOffset() + position, length, cache);
+		else {
+			if (length > scratch.length)
+				scratch = new byte[Math.max(length, Math.max(64, scratch.length << 1))];
+
+			buffer.get(position, scratch, 0, length);
+			result = decodeUTF8(scratch, 0, length, cache);
+		}
+
+		buffer.position(position + length);
+		return result;
+	}
+
+	@Override
+	ByteBuffer readSlice(int length, String mismatchErrorMessage) throws IOException {
+		if (length < 0 || buffer.remaining() < length)
+			throw new IOException(mismatchErrorMessage);
+
+		int position = buffer.position();
+		var slice = buffer.slice(position, length).asReadOnlyBuffer();
+		buffer.position(position + length);
+		return slice;
+	}
+
+	@Override
+	void readBulk(int count, int elementSize, BulkTransfer get) throws IOException {
+		long length = (long) count * elementSize;
+		ensure(length);
+		int position = buffer.position();
+		// slices are big-endian
+		get.transfer(buffer.slice(position, (int) length), 0, count);
+		buffer.position(position + (int) length);
+	}
+
+	@Override
+	int readNBytes(byte[] b, int off, int len) {
+		Objects.checkFromIndexSize(off, len, b.length);
+		int n = Math.min(len, buffer.remaining());
+		buffer.get(b, off, n);
+		return n;
+	}
+
+	@Override
+	void skip(int n) throws IOException {
+		ensure(n);
+		buffer.position(buffer.position() + n);
+	}
+
+	@Override
+	byte[] readAllBytes() {
+		var bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	@Override
+	void close() {
+		// nothing to close
+	}
+}
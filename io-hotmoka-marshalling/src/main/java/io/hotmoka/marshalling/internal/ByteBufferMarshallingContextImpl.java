@@ -0,0 +1,73 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.nio.ByteBuffer;
+
+import io.hotmoka.marshalling.api.ByteBufferMarshallingContext;
+
+/**
+ * Implementation of a context used during object marshaling into a byte buffer.
+ * Primitive values are written through direct puts into the buffer,
+ * without the mediation of any output stream.
+ */
+public class ByteBufferMarshallingContextImpl extends MarshallingContextImpl implements ByteBufferMarshallingContext {
+
+	/**
+	 * The output of this context.
+	 */
+	private final ByteBufferOutput output;
+
+	/**
+	 * Creates a marshalling context that writes into the given buffer, starting
+	 * at its current position, and advances that position. The byte order of the buffer
+	 * gets set to big-endian. An {@link java.io.IOException} is thrown by the
+	 * marshalling methods if the buffer overflows.
+	 * 
+	 * @param buffer the buffer
+	 */
+	public ByteBufferMarshallingContextImpl(ByteBuffer buffer) {
+		this(new ByteBufferOutput(buffer));
+	}
+
+	/**
+	 * Creates a marshalling context that writes into a buffer that grows as needed.
+	 * 
+	 * @param initialCapacity the initial capacity of the buffer, in bytes
+	 * @param direct true if and only if the buffer must be direct, rather than on the heap
+	 * @throws IllegalArgumentException if {@code initialCapacity} is negative
+	 */
+	public ByteBufferMarshallingContextImpl(int initialCapacity, boolean direct) {
+		this(new ByteBufferOutput(initialCapacity, direct));
+	}
+
+	private ByteBufferMarshallingContextImpl(ByteBufferOutput output) {
+		super(output);
+
+		this.output = output;
+	}
+
+	@Override
+	public ByteBuffer toByteBuffer() {
+		return output.toByteBuffer();
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		return output.toByteArray();
+	}
+}
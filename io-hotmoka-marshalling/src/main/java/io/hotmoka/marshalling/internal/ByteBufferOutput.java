@@ -0,0 +1,256 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * An output that writes into a byte buffer, through direct puts of
+ * big-endian primitive values. The buffer can be fixed, in which case
+ * an exception is thrown if it overflows, or growable, in which case it is
+ * replaced with a larger buffer when it is full.
+ */
+final class ByteBufferOutput extends Output {
+
+	/**
+	 * The largest capacity of a growable buffer. Some virtual machines
+	 * reserve some header words in arrays.
+	 */
+	private final static int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	/**
+	 * The buffer where bytes are written, at its current position.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * The position of {@link #buffer} where the first byte has been written.
+	 */
+	private final int start;
+
+	/**
+	 * True if and only if {@link #buffer} can be replaced with a larger buffer when it is full.
+	 */
+	private final boolean growable;
+
+	/**
+	 * Creates an output that writes into the given buffer, starting at its current position.
+	 * The byte order of the buffer gets set to big-endian.
+	 * 
+	 * @param buffer the buffer
+	 */
+	ByteBufferOutput(ByteBuffer buffer) {
+		this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+		this.start = buffer.position();
+		this.growable = false;
+	}
+
+	/**
+	 * Creates an output that writes into a growable buffer.
+	 * 
+	 * @param initialCapacity the initial capacity of the buffer
+	 * @param direct true if and only if the buffer must be direct, rather than on the heap
+	 * @throws IllegalArgumentException if {@code initialCapacity} is negative
+	 */
+	ByteBufferOutput(int initialCapacity, boolean direct) {
+		this.buffer = direct ? ByteBuffer.allocateDirect(initialCapacity) : ByteBuffer.allocate(initialCapacity);
+		this.start = 0;
+		this.growable = true;
+	}
+
+	/**
+	 * Guarantees that there is space for writing the given number of bytes into the buffer.
+	 * 
+	 * @param needed the number of bytes
+	 * @throws IOException if the buffer is full and cannot grow
+	 */
+	private void ensure(int needed) throws IOException {
+		if (buffer.remaining() < needed)
+			grow(needed);
+	}
+
+	private void grow(int needed) throws IOException {
+		if (!growable)
+			throw new IOException("Buffer overflow");
+
+		int position = buffer.position();
+		if (needed > MAX_CAPACITY - position)
+			throw new IOException("Too many bytes for a buffer");
+
+		int capacity = (int) Math.min(MAX_CAPACITY, Math.max(2L * buffer.capacity(), (long) position + needed));
+		var larger = buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+		buffer = larger.put(buffer.flip());
+	}
+
+	/**
+	 * Yields the bytes written so far, as a read-only view of the buffer.
+	 * 
+	 * @return the view, from position 0 to the number of bytes written so far
+	 */
+	ByteBuffer toByteBuffer() {
+		return buffer.duplicate().flip().position(start).slice().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Yields the number of bytes written so far.
+	 * 
+	 * @return the number of bytes
+	 */
+	int size() {
+		return buffer.position() - start;
+	}
+
+	/**
+	 * Writes the bytes written so far into the given output.
+	 * 
+	 * @param other the output
+	 * @throws IOException if {@code other} cannot be written
+	 */
+	void writeInto(Output other) throws IOException {
+		int end = buffer.position();
+
+		if (buffer.hasArray())
+			other.write(buffer.array(), buffer.arrayOffset() + start, end - start);
+		else
+			other.write(toByteArray(), 0, end - start);
+	}
+
+	/**
+	 * Yields the bytes written so far, as an array. This is the array backing
+	 * the buffer, without any copy, if the buffer is on the heap and the bytes written
+	 * so far fill exactly that array. Otherwise, it is a copy of the bytes.
+	 * 
+	 * @return the bytes
+	 */
+	byte[] toByteArray() {
+		int end = buffer.position();
+
+		if (buffer.hasArray()) {
+			byte[] array = buffer.array();
+			int offset = buffer.arrayOffset();
+			if (offset + start == 0 && end == array.length)
+				return array;
+			else
+				return Arrays.copyOfRange(array, offset + start, offset + end);
+		}
+		else {
+			var result = new byte[end - start];
+			buffer.get(start, result);
+			return result;
+		}
+	}
+
+	@Override
+	void writeByte(int b) throws IOException {
+		ensure(1);
+		buffer.put((byte) b);
+	}
+
+	@Override
+	void writeShort(int s) throws IOException {
+		ensure(2);
+		buffer.putShort((short) s);
+	}
+
+	@Override
+	void writeChar(int c) throws IOException {
+		ensure(2);
+		buffer.putChar((char) c);
+	}
+
+	@Override
+	void writeInt(int i) throws IOException {
+		ensure(4);
+		buffer.putInt(i);
+	}
+
+	@Override
+	void writeLong(long l) throws IOException {
+		ensure(8);
+		buffer.putLong(l);
+	}
+
+	@Override
+	void writeFloat(float f) throws IOException {
+		ensure(4);
+		buffer.putFloat(f);
+	}
+
+	@Override
+	void writeDouble(double d) throws IOException {
+		ensure(8);
+		buffer.putDouble(d);
+	}
+
+	@Override
+	void write(byte[] bytes, int off, int len) throws IOException {
+		ensure(len);
+		buffer.put(bytes, off, len);
+	}
+
+	@Override
+	void writeVarLong(long value) throws IOException {
+		ensure(Varints.length(value));
+
+		while ((value & ~0x7FL) != 0L) {
+			buffer.put((byte) (value | 0x80));
+			value >>>= 7;
+		}
+
+		buffer.put((byte) value);
+	}
+
+	@Override
+	void writeBulk(int count, int elementSize, BulkTransfer put) throws IOException {
+		long length = (long) count * elementSize;
+		if (length > MAX_CAPACITY)
+			throw new IOException("Too many bytes for a buffer");
+
+		ensure((int) length);
+		int position = buffer.position();
+		// slices are big-endian
+		put.transfer(buffer.slice(position, (int) length), 0, count);
+		buffer.position(position + (int) length);
+	}
+
+	@Override
+	void writeUTF8(String s, int length) throws IOException {
+		ensure(length);
+
+		if (buffer.hasArray()) {
+			// the encoding is computed directly inside the buffer
+			int position = buffer.position();
+			Utf8.encode(s, buffer.array(), buffer.arrayOffset() + position);
+			buffer.position(position + length);
+		}
+		else
+			super.writeUTF8(s, length);
+	}
+
+	@Override
+	void flush() {
+		// nothing is buffered
+	}
+
+	@Override
+	void close() {
+		// nothing to close
+	}
+}
@@ -0,0 +1,92 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import io.hotmoka.marshalling.api.ByteBufferUnmarshallingContext;
+
+/**
+ * Implementation of a context used during the unmarshalling of objects from a byte buffer.
+ * Primitive values are read through direct gets from the buffer,
+ * without the mediation of any input stream.
+ */
+public class ByteBufferUnmarshallingContextImpl extends UnmarshallingContextImpl implements ByteBufferUnmarshallingContext {
+
+	/**
+	 * The input of this context.
+	 */
+	private final ByteBufferInput input;
+
+	/**
+	 * Creates an unmarshalling context that reads the given buffer, from its current position
+	 * up to its limit, and advances that position. The byte order of the buffer gets set to big-endian.
+	 * 
+	 * @param buffer the buffer
+	 */
+	public ByteBufferUnmarshallingContextImpl(ByteBuffer buffer) {
+		this(new ByteBufferInput(buffer));
+	}
+
+	/**
+	 * Creates an unmarshalling context that reads the given portion of an array of bytes.
+	 * 
+	 * @param bytes the array of bytes
+	 * @param offset the offset of the first byte to read
+	 * @param length the number of bytes that can be read
+	 * @throws IndexOutOfBoundsException if {@code offset} and {@code length} do not
+	 *                                   identify a portion of {@code bytes}
+	 */
+	public ByteBufferUnmarshallingContextImpl(byte[] bytes, int offset, int length) {
+		this(ByteBuffer.wrap(bytes, offset, length));
+	}
+
+	/**
+	 * Creates an unmarshalling context that reads a region of a file, mapped in memory.
+	 * Primitive values are read directly from the mapped memory, hence from the page cache
+	 * of the operating system. The mapping remains valid after the channel
+	 * and this context get closed. Closing this context does not close the channel.
+	 * 
+	 * @param channel the channel of the file, which must be open for reading
+	 * @param position the position in the file where the region starts
+	 * @param size the size of the region, in bytes
+	 * @throws IOException if the region cannot be mapped in memory
+	 * @throws IllegalArgumentException if {@code position} or {@code size} are negative or
+	 *                                  if {@code size} is larger than {@link Integer#MAX_VALUE}
+	 */
+	public ByteBufferUnmarshallingContextImpl(FileChannel channel, long position, long size) throws IOException {
+		this(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+	}
+
+	private ByteBufferUnmarshallingContextImpl(ByteBufferInput input) {
+		super(input);
+
+		this.input = input;
+	}
+
+	@Override
+	public int position() {
+		return input.position();
+	}
+
+	@Override
+	public void seek(int position) {
+		input.seek(position);
+	}
+}
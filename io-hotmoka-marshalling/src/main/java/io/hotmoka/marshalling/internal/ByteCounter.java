@@ -0,0 +1,58 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * An output stream that discards the bytes written into it and only counts them.
+ * The marshalling contexts of {@link MarshallableImpl#size()} count into it directly,
+ * without producing the marshalled bytes, through {@link MarshallingContextImpl#countInto(ByteCounter)}.
+ */
+final class ByteCounter extends OutputStream {
+	private long count;
+
+	/**
+	 * Yields the number of bytes written so far into this stream.
+	 * 
+	 * @return the number of bytes
+	 */
+	long count() {
+		return count;
+	}
+
+	/**
+	 * Takes note that the given number of bytes has been written into this stream.
+	 * 
+	 * @param n the number of bytes
+	 */
+	void add(long n) {
+		count += n;
+	}
+
+	@Override
+	public void write(int b) {
+		count++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		Objects.checkFromIndexSize(off, len, b.length);
+		count += len;
+	}
+}
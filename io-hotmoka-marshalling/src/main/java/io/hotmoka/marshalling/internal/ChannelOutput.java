@@ -0,0 +1,196 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An output that stages the bytes in a direct buffer, reused for the whole
+ * life of the output, and drains it into a channel when it is full.
+ * Arrays of bytes at least as large as the buffer are not copied into it:
+ * they are written into the channel together with the buffer, through a gathering write
+ * if the channel supports it.
+ */
+final class ChannelOutput extends Output {
+
+	/**
+	 * The channel where bytes are written. It is assumed to be in blocking mode.
+	 */
+	private final WritableByteChannel channel;
+
+	/**
+	 * The buffer where bytes are staged before being written into {@link #channel}.
+	 */
+	private final ByteBuffer staging;
+
+	/**
+	 * Creates an output that writes into the given channel.
+	 * 
+	 * @param channel the channel, which must be in blocking mode
+	 * @param bufferSize the size of the staging buffer, in bytes
+	 * @throws IllegalArgumentException if {@code bufferSize} is smaller than 8
+	 */
+	ChannelOutput(WritableByteChannel channel, int bufferSize) {
+		if (bufferSize < 8)
+			throw new IllegalArgumentException("The buffer must contain at least 8 bytes");
+
+		this.channel = channel;
+		this.staging = ByteBuffer.allocateDirect(bufferSize); // big-endian by default
+	}
+
+	/**
+	 * Guarantees that there is space for writing the given number of bytes into the staging buffer.
+	 * 
+	 * @param needed the number of bytes, not larger than the capacity of the staging buffer
+	 * @throws IOException if the channel cannot be written
+	 */
+	private void ensure(int needed) throws IOException {
+		if (staging.remaining() < needed)
+			drain();
+	}
+
+	/**
+	 * Writes the content of the staging buffer into the channel and clears the staging buffer.
+	 * 
+	 * @throws IOException if the channel cannot be written
+	 */
+	private void drain() throws IOException {
+		staging.flip();
+		while (staging.hasRemaining())
+			channel.write(staging);
+
+		staging.clear();
+	}
+
+	@Override
+	void writeByte(int b) throws IOException {
+		ensure(1);
+		staging.put((byte) b);
+	}
+
+	@Override
+	void writeShort(int s) throws IOException {
+		ensure(2);
+		staging.putShort((short) s);
+	}
+
+	@Override
+	void writeChar(int c) throws IOException {
+		ensure(2);
+		staging.putChar((char) c);
+	}
+
+	@Override
+	void writeInt(int i) throws IOException {
+		ensure(4);
+		staging.putInt(i);
+	}
+
+	@Override
+	void writeLong(long l) throws IOException {
+		ensure(8);
+		staging.putLong(l);
+	}
+
+	@Override
+	void writeFloat(float f) throws IOException {
+		ensure(4);
+		staging.putFloat(f);
+	}
+
+	@Override
+	void writeDouble(double d) throws IOException {
+		ensure(8);
+		staging.putDouble(d);
+	}
+
+	@Override
+	void writeVarLong(long value) throws IOException {
+		int length = Varints.length(value);
+		if (length > staging.capacity())
+			super.writeVarLong(value);
+		else {
+			ensure(length);
+
+			while ((value & ~0x7FL) != 0L) {
+				staging.put((byte) (value | 0x80));
+				value >>>= 7;
+			}
+
+			staging.put((byte) value);
+		}
+	}
+
+	@Override
+	void writeBulk(int count, int elementSize, BulkTransfer put) throws IOException {
+		int maxChunk = staging.capacity() / elementSize;
+
+		for (int offset = 0, chunk; offset < count; offset += chunk) {
+			chunk = Math.min(count - offset, maxChunk);
+			int length = chunk * elementSize;
+			ensure(length);
+			int position = staging.position();
+			// slices are big-endian
+			put.transfer(staging.slice(position, length), offset, chunk);
+			staging.position(position + length);
+		}
+	}
+
+	@Override
+	void write(byte[] bytes, int off, int len) throws IOException {
+		if (len < staging.capacity()) {
+			ensure(len);
+			staging.put(bytes, off, len);
+		}
+		else {
+			var payload = ByteBuffer.wrap(bytes, off, len);
+			staging.flip();
+
+			if (channel instanceof GatheringByteChannel gbc) {
+				var buffers = new ByteBuffer[] { staging, payload };
+				while (payload.hasRemaining())
+					gbc.write(buffers);
+			}
+			else {
+				while (staging.hasRemaining())
+					channel.write(staging);
+				while (payload.hasRemaining())
+					channel.write(payload);
+			}
+
+			staging.clear();
+		}
+	}
+
+	@Override
+	void flush() throws IOException {
+		drain();
+	}
+
+	@Override
+	void close() throws IOException {
+		try {
+			drain();
+		}
+		finally {
+			channel.close();
+		}
+	}
+}
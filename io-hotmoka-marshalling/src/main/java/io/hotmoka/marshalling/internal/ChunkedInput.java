@@ -0,0 +1,266 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import io.hotmoka.marshalling.api.StringCache;
+
+/**
+ * An input that reads from the chunks of bytes it is fed with. The bytes are
+ * copied into a growable array, from the mark, that is, the first byte of the pending read,
+ * up to the last byte fed so far. Reading beyond the last byte fed so far does not block:
+ * it records the number of missing bytes and throws a {@link MissingBytesException}. The record
+ * survives the exception, that might be caught or wrapped by the reader. Then the position can be
+ * reset to the mark, so that the reading can be attempted again after more chunks have been fed.
+ */
+final class ChunkedInput extends Input {
+
+	/**
+	 * The initial size of {@link #bytes}.
+	 */
+	private final static int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * The maximal size of {@link #bytes}.
+	 */
+	private final static int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	/**
+	 * The array where the chunks are copied.
+	 */
+	private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+	/**
+	 * A big-endian view of {@link #bytes}, whose limit is the end of the last chunk fed so far.
+	 */
+	private ByteBuffer buffer = ByteBuffer.wrap(bytes).limit(0);
+
+	/**
+	 * The position of the first byte of the pending read. The bytes before it have been
+	 * consumed and can be discarded.
+	 */
+	private int mark;
+
+	/**
+	 * A lower bound of the number of bytes missing for the pending read, recorded
+	 * when the pending read first went beyond the last byte fed so far. It is 0
+	 * if the pending read has not yet gone beyond that byte.
+	 */
+	private long missing;
+
+	/**
+	 * Copies the given chunk of bytes at the end of this input.
+	 * 
+	 * @param chunk the chunk, from its current position up to its limit; its position gets moved to its limit
+	 * @throws IllegalStateException if this input cannot hold any more bytes
+	 */
+	void feed(ByteBuffer chunk) {
+		int length = chunk.remaining(), limit = buffer.limit();
+
+		if (bytes.length - limit < length) {
+			// first we discard the consumed bytes, and grow the array only if that is not enough
+			int kept = limit - mark;
+			long needed = (long) kept + length;
+			if (needed > MAX_CAPACITY)
+				throw new IllegalStateException("Too many bytes pending in the input");
+
+			byte[] target = needed <= bytes.length ? bytes : new byte[(int) Math.min(MAX_CAPACITY, Math.max(needed, 2L * bytes.length))];
+			System.arraycopy(bytes, mark, target, 0, kept);
+			int position = buffer.position() - mark;
+			bytes = target;
+			buffer = ByteBuffer.wrap(bytes).limit(kept).position(position);
+			limit = kept;
+			mark = 0;
+		}
+
+		chunk.get(bytes, limit, length);
+		buffer.limit(limit + length);
+	}
+
+	/**
+	 * Moves the mark to the current position, since the bytes before it have been consumed,
+	 * and starts a new pending read, forgetting the bytes missing for the previous one.
+	 */
+	void mark() {
+		mark = buffer.position();
+		missing = 0L;
+	}
+
+	/**
+	 * Moves the current position back to the mark and starts the pending read again.
+	 */
+	void reset() {
+		buffer.position(mark);
+		missing = 0L;
+	}
+
+	/**
+	 * Yields a lower bound of the number of bytes missing for the pending read.
+	 * 
+	 * @return the lower bound, or 0 if the pending read has not gone beyond the last byte fed so far
+	 */
+	long missing() {
+		return missing;
+	}
+
+	/**
+	 * Records that the given number of bytes is missing for the pending read,
+	 * unless bytes were already missing: later reads might be meaningless,
+	 * if the reader has ignored the missing bytes.
+	 * 
+	 * @param missing the number of missing bytes, that is positive
+	 */
+	private void recordMissing(long missing) {
+		if (this.missing == 0L)
+			this.missing = missing;
+	}
+
+	/**
+	 * Checks that there are at least the given number of bytes still to read.
+	 * 
+	 * @param needed the number of bytes
+	 * @throws MissingBytesException if there are less than {@code needed} bytes still to read
+	 */
+	private void ensure(long needed) throws MissingBytesException {
+		int remaining = buffer.remaining();
+		if (remaining < needed) {
+			recordMissing(needed - remaining);
+			throw new MissingBytesException();
+		}
+	}
+
+	@Override
+	int available() {
+		return buffer.remaining();
+	}
+
+	@Override
+	byte readByte() throws IOException {
+		ensure(1);
+		return buffer.get();
+	}
+
+	@Override
+	short readShort() throws IOException {
+		ensure(2);
+		return buffer.getShort();
+	}
+
+	@Override
+	char readChar() throws IOException {
+		ensure(2);
+		return buffer.getChar();
+	}
+
+	@Override
+	int readInt() throws IOException {
+		ensure(4);
+		return buffer.getInt();
+	}
+
+	@Override
+	long readLong() throws IOException {
+		ensure(8);
+		return buffer.getLong();
+	}
+
+	@Override
+	byte[] readBytes(int length, String mismatchErrorMessage) throws IOException {
+		if (length < 0)
+			throw new IOException(mismatchErrorMessage);
+
+		ensure(length);
+		var result = new byte[length];
+		buffer.get(result);
+		return result;
+	}
+
+	@Override
+	String readUTF8(int length, StringCache cache) throws IOException {
+		if (length < 0)
+			throw new IOException("String length mismatch");
+
+		ensure(length);
+		int position = buffer.position();
+		String result = decodeUTF8(bytes, position, length, cache);
+		buffer.position(position + length);
+		return result;
+	}
+
+	@Override
+	void readBulk(int count, int elementSize, BulkTransfer get) throws IOException {
+		long length = (long) count * elementSize;
+		ensure(length);
+		int position = buffer.position();
+		// slices are big-endian
+		get.transfer(buffer.slice(position, (int) length), 0, count);
+		buffer.position(position + (int) length);
+	}
+
+	// readSlice is not redefined: it must yield a copy, since the bytes of this input get moved
+
+	@Override
+	int readNBytes(byte[] b, int off, int len) {
+		Objects.checkFromIndexSize(off, len, b.length);
+		int n = Math.min(len, buffer.remaining());
+		buffer.get(b, off, n);
+
+		// a stream would block until len bytes are available
+		if (n < len)
+			recordMissing(len - n);
+
+		return n;
+	}
+
+	@Override
+	void skip(int n) throws IOException {
+		ensure(n);
+		buffer.position(buffer.position() + n);
+	}
+
+	@Override
+	byte[] readAllBytes() throws IOException {
+		throw new IOException("Cannot read all bytes of an input whose end is not known");
+	}
+
+	@Override
+	void close() {
+		// nothing to close
+	}
+
+	/**
+	 * The exception thrown when reading beyond the last byte fed so far. It is not an
+	 * {@link java.io.EOFException}, since the end of the input has not been reached,
+	 * and carries no stack trace, since it is expected. The missing bytes are recorded
+	 * in the input, hence this exception only serves to stop the reader.
+	 */
+	private static class MissingBytesException extends IOException {
+		private final static long serialVersionUID = 1L;
+
+		private MissingBytesException() {
+			super("More bytes are needed");
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+/**
+ * An output that only counts the bytes written into it, without producing them.
+ */
+final class CountingOutput extends Output {
+
+	/**
+	 * The counter of the written bytes.
+	 */
+	private final ByteCounter counter;
+
+	/**
+	 * Creates an output that counts the bytes written into it.
+	 * 
+	 * @param counter the counter of the written bytes
+	 */
+	CountingOutput(ByteCounter counter) {
+		this.counter = counter;
+	}
+
+	@Override
+	void writeByte(int b) {
+		counter.add(1);
+	}
+
+	@Override
+	void writeShort(int s) {
+		counter.add(2);
+	}
+
+	@Override
+	void writeChar(int c) {
+		counter.add(2);
+	}
+
+	@Override
+	void writeInt(int i) {
+		counter.add(4);
+	}
+
+	@Override
+	void writeLong(long l) {
+		counter.add(8);
+	}
+
+	@Override
+	void writeFloat(float f) {
+		counter.add(4);
+	}
+
+	@Override
+	void writeDouble(double d) {
+		counter.add(8);
+	}
+
+	@Override
+	void writeBoolean(boolean b) {
+		counter.add(1);
+	}
+
+	@Override
+	void write(byte[] bytes, int off, int len) {
+		counter.add(len);
+	}
+
+	@Override
+	void writeVarLong(long value) {
+		counter.add(Varints.length(value));
+	}
+
+	@Override
+	void writeBulk(int count, int elementSize, BulkTransfer put) {
+		counter.add((long) count * elementSize);
+	}
+
+	@Override
+	void writeUTF8(String s, int length) {
+		counter.add(length);
+	}
+
+	@Override
+	void flush() {
+		// nothing is buffered
+	}
+
+	@Override
+	void close() {
+		// nothing to close
+	}
+}
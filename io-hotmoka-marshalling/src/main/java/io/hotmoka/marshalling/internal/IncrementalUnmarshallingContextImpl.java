@@ -0,0 +1,134 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import io.hotmoka.marshalling.api.IncrementalUnmarshallingContext;
+import io.hotmoka.marshalling.api.Marshallable;
+import io.hotmoka.marshalling.api.Unmarshaller;
+
+/**
+ * Implementation of a context used during the unmarshalling of objects from
+ * chunks of bytes, fed as they arrive. A read that runs out of bytes is abandoned
+ * and attempted again, from the start of its object, only after at least
+ * the bytes known to be missing have been fed.
+ */
+public class IncrementalUnmarshallingContextImpl extends UnmarshallingContextImpl implements IncrementalUnmarshallingContext {
+
+	/**
+	 * The input of this context.
+	 */
+	private final ChunkedInput input;
+
+	/**
+	 * A lower bound of the number of bytes that must still be fed before
+	 * the last abandoned read can succeed.
+	 */
+	private long missing;
+
+	/**
+	 * Creates an unmarshalling context without bytes, that must be fed through {@link #feed(ByteBuffer)}.
+	 */
+	public IncrementalUnmarshallingContextImpl() {
+		this(new ChunkedInput());
+	}
+
+	private IncrementalUnmarshallingContextImpl(ChunkedInput input) {
+		super(input);
+
+		this.input = input;
+	}
+
+	@Override
+	public void feed(ByteBuffer chunk) {
+		int length = chunk.remaining();
+		input.feed(chunk);
+		missing = Math.max(0L, missing - length);
+	}
+
+	@Override
+	public long missingBytes() {
+		return missing;
+	}
+
+	@Override
+	public <T extends Marshallable> T tryRead(Unmarshaller<T> unmarshaller) throws IOException {
+		return tryRead(() -> unmarshaller.from(this));
+	}
+
+	@Override
+	public <C> C tryReadObject(Class<C> clazz) throws IOException {
+		return tryRead(() -> readObject(clazz));
+	}
+
+	/**
+	 * A read of an object from this context.
+	 * 
+	 * @param <T> the type of the object
+	 */
+	private interface Read<T> {
+
+		/**
+		 * Reads the object.
+		 * 
+		 * @return the object
+		 * @throws IOException if the object cannot be read
+		 */
+		T read() throws IOException;
+	}
+
+	/**
+	 * Attempts the given read, unless bytes are known to be missing.
+	 * 
+	 * @param <T> the type of the read object
+	 * @param read the read
+	 * @return the read object, or {@code null} if more bytes are needed
+	 * @throws IOException if the read fails for a reason other than missing bytes
+	 */
+	private <T> T tryRead(Read<T> read) throws IOException {
+		// the bytes consumed by the plain reads since the last try are released and,
+		// if one of them went beyond the bytes fed so far, it is not blamed on this read
+		input.mark();
+
+		if (missing > 0L)
+			return null;
+
+		int sharedStrings = sharedStrings();
+
+		// the input is checked for missing bytes even if the read completes or fails for another reason,
+		// since the read might have caught or wrapped the exception thrown for the missing bytes
+		try {
+			T result = read.read();
+			if (input.missing() == 0L) {
+				input.mark();
+				return result;
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			if (input.missing() == 0L)
+				throw e;
+		}
+
+		// the read will be attempted again, from the same position and with the same shared strings
+		missing = input.missing();
+		input.reset();
+		forgetSharedStrings(sharedStrings);
+		return null;
+	}
+}
@@ -0,0 +1,131 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+import io.hotmoka.marshalling.api.IndexedArray;
+import io.hotmoka.marshalling.api.Marshallable;
+import io.hotmoka.marshalling.api.Unmarshaller;
+
+/**
+ * Implementation of an array of marshallables whose elements are unmarshalled on demand.
+ * Each element is unmarshalled from its own view of the bytes of the array,
+ * hence elements can be unmarshalled concurrently.
+ */
+final class IndexedArrayImpl implements IndexedArray {
+
+	/**
+	 * The number of slices per worker thread, in {@link #toArray(Unmarshaller, Function, ForkJoinPool)}.
+	 */
+	private final static int SLICES_PER_WORKER = 4;
+
+	/**
+	 * The context where this array has been read.
+	 */
+	private final UnmarshallingContextImpl parent;
+
+	/**
+	 * The offsets in {@link #elements} where each element ends.
+	 */
+	private final int[] ends;
+
+	/**
+	 * The bytes of the elements. It is only accessed through absolute slices,
+	 * hence it can be shared among threads.
+	 */
+	private final ByteBuffer elements;
+
+	/**
+	 * Creates an array of marshallables.
+	 * 
+	 * @param parent the context where the array has been read
+	 * @param ends the offsets in {@code elements} where each element ends, in non-decreasing order
+	 * @param elements the bytes of the elements
+	 */
+	IndexedArrayImpl(UnmarshallingContextImpl parent, int[] ends, ByteBuffer elements) {
+		this.parent = parent;
+		this.ends = ends;
+		this.elements = elements;
+	}
+
+	@Override
+	public int length() {
+		return ends.length;
+	}
+
+	@Override
+	public <T extends Marshallable> T get(int index, Unmarshaller<T> unmarshaller) throws IOException {
+		Objects.checkIndex(index, ends.length);
+		int start = index == 0 ? 0 : ends[index - 1];
+		var context = new UnmarshallingContextImpl(new ByteBufferInput(elements.slice(start, ends[index] - start)), parent);
+		T result = unmarshaller.from(context);
+		if (context.available() != 0)
+			throw new IOException("Element #" + index + " of the indexed array has not been fully unmarshalled");
+
+		return result;
+	}
+
+	@Override
+	public <T extends Marshallable> T[] toArray(Unmarshaller<T> unmarshaller, Function<Integer, T[]> supplier) throws IOException {
+		T[] result = supplier.apply(ends.length);
+		for (int pos = 0; pos < result.length; pos++)
+			result[pos] = get(pos, unmarshaller);
+
+		return result;
+	}
+
+	@Override
+	public <T extends Marshallable> T[] toArray(Unmarshaller<T> unmarshaller, Function<Integer, T[]> supplier, ForkJoinPool pool) throws IOException {
+		if (ends.length < 2 || pool.getParallelism() < 2)
+			return toArray(unmarshaller, supplier);
+
+		T[] result = supplier.apply(ends.length);
+		int slicesCount = Math.min(ends.length, pool.getParallelism() * SLICES_PER_WORKER);
+		var failures = new IOException[slicesCount];
+		var tasks = new ForkJoinTask<?>[slicesCount];
+
+		for (int slice = 0; slice < slicesCount; slice++) {
+			int number = slice;
+			int from = (int) ((long) ends.length * slice / slicesCount), to = (int) ((long) ends.length * (slice + 1) / slicesCount);
+
+			tasks[slice] = pool.submit(() -> {
+				try {
+					for (int pos = from; pos < to; pos++)
+						result[pos] = get(pos, unmarshaller);
+				}
+				catch (IOException e) {
+					failures[number] = e;
+				}
+			});
+		}
+
+		for (var task: tasks)
+			task.join();
+
+		for (var failure: failures)
+			if (failure != null)
+				throw failure;
+
+		return result;
+	}
+}
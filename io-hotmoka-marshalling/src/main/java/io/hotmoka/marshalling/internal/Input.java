@@ -0,0 +1,236 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import io.hotmoka.marshalling.api.StringCache;
+
+/**
+ * The source of the bytes of an unmarshalling context. Multibyte
+ * values are read in big-endian order, as in {@link java.io.DataInput}.
+ */
+abstract class Input {
+
+	/**
+	 * Yields the number of bytes that can be read without blocking.
+	 * 
+	 * @return the number of bytes
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract int available() throws IOException;
+
+	/**
+	 * Reads the next byte.
+	 * 
+	 * @return the byte
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract byte readByte() throws IOException;
+
+	/**
+	 * Reads the next two bytes, as a short.
+	 * 
+	 * @return the short
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract short readShort() throws IOException;
+
+	/**
+	 * Reads the next two bytes, as a character.
+	 * 
+	 * @return the character
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract char readChar() throws IOException;
+
+	/**
+	 * Reads the next four bytes, as an integer.
+	 * 
+	 * @return the integer
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract int readInt() throws IOException;
+
+	/**
+	 * Reads the next eight bytes, as a long.
+	 * 
+	 * @return the long
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract long readLong() throws IOException;
+
+	/**
+	 * Reads the next four bytes, as a float.
+	 * 
+	 * @return the float
+	 * @throws IOException if an I/O error occurs
+	 */
+	float readFloat() throws IOException {
+		return Float.intBitsToFloat(readInt());
+	}
+
+	/**
+	 * Reads the next eight bytes, as a double.
+	 * 
+	 * @return the double
+	 * @throws IOException if an I/O error occurs
+	 */
+	double readDouble() throws IOException {
+		return Double.longBitsToDouble(readLong());
+	}
+
+	/**
+	 * Reads the next LEB128 variable-length integer.
+	 * 
+	 * @return the integer, to be considered as unsigned
+	 * @throws IOException if an I/O error occurs or if the integer is malformed
+	 */
+	long readVarLong() throws IOException {
+		long result = 0L;
+
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			byte b = readByte();
+			result |= (long) (b & 0x7F) << shift;
+			if (b >= 0)
+				return checkLastVarLongByte(b, shift, result);
+		}
+
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	/**
+	 * Checks that the last byte of a variable-length integer does not overflow a long.
+	 * 
+	 * @param b the last byte
+	 * @param shift the shift of {@code b} inside the integer
+	 * @param result the integer
+	 * @return {@code result}
+	 * @throws IOException if {@code b} overflows a long
+	 */
+	protected static long checkLastVarLongByte(byte b, int shift, long result) throws IOException {
+		// only the least significant bit of the tenth byte fits into a long
+		if (shift == 63 && b > 1)
+			throw new IOException("Malformed variable-length integer");
+
+		return result;
+	}
+
+	/**
+	 * Reads the next byte, as a boolean.
+	 * 
+	 * @return the boolean
+	 * @throws IOException if an I/O error occurs
+	 */
+	boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	/**
+	 * Reads the next {@code length} bytes.
+	 * 
+	 * @param length the number of bytes to read
+	 * @param mismatchErrorMessage the message of the exception thrown if it was not possible
+	 *                             to read {@code length} bytes
+	 * @return the bytes
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract byte[] readBytes(int length, String mismatchErrorMessage) throws IOException;
+
+	/**
+	 * Reads the next {@code length} bytes, as the UTF-8 encoding of a string.
+	 * 
+	 * @param length the number of bytes to read
+	 * @param cache the cache used to decode the string; this is {@code null} if no cache is used
+	 * @return the string
+	 * @throws IOException if an I/O error occurs or if it was not possible to read {@code length} bytes
+	 */
+	abstract String readUTF8(int length, StringCache cache) throws IOException;
+
+	/**
+	 * Decodes a string from its UTF-8 encoding.
+	 * 
+	 * @param bytes the array holding the encoding
+	 * @param offset the offset of the first byte of the encoding
+	 * @param length the number of bytes of the encoding
+	 * @param cache the cache used to decode the string; this is {@code null} if no cache is used
+	 * @return the string
+	 */
+	protected static String decodeUTF8(byte[] bytes, int offset, int length, StringCache cache) {
+		return cache == null ? new String(bytes, offset, length, StandardCharsets.UTF_8) : cache.decode(bytes, offset, length);
+	}
+
+	/**
+	 * Reads, in big-endian order, the elements of an array of primitive values.
+	 * 
+	 * @param count the number of elements
+	 * @param elementSize the number of bytes of each element
+	 * @param get the transfer that gets the elements from a buffer
+	 * @throws IOException if an I/O error occurs or if there are not enough bytes
+	 */
+	abstract void readBulk(int count, int elementSize, BulkTransfer get) throws IOException;
+
+	/**
+	 * Reads the next {@code length} bytes, as a read-only buffer.
+	 * 
+	 * @param length the number of bytes to read
+	 * @param mismatchErrorMessage the message of the exception thrown if it was not possible
+	 *                             to read {@code length} bytes
+	 * @return the buffer, from position 0 to {@code length}; it is a view of the bytes of this input,
+	 *         if possible, or otherwise a view of a copy of the bytes
+	 * @throws IOException if an I/O error occurs
+	 */
+	ByteBuffer readSlice(int length, String mismatchErrorMessage) throws IOException {
+		return ByteBuffer.wrap(readBytes(length, mismatchErrorMessage)).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Reads up to the requested number of bytes into the given byte array.
+	 *
+	 * @param b the byte array into which the data is read
+	 * @param off the start offset in {@code b} at which the data is written
+	 * @param len the maximum number of bytes to read
+	 * @return the actual number of bytes read into the array
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract int readNBytes(byte[] b, int off, int len) throws IOException;
+
+	/**
+	 * Skips the next {@code n} bytes.
+	 * 
+	 * @param n the number of bytes to skip
+	 * @throws IOException if an I/O error occurs or if there are less than {@code n} bytes
+	 */
+	abstract void skip(int n) throws IOException;
+
+	/**
+	 * Reads all remaining bytes.
+	 * 
+	 * @return the bytes
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract byte[] readAllBytes() throws IOException;
+
+	/**
+	 * Closes this input.
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract void close() throws IOException;
+}
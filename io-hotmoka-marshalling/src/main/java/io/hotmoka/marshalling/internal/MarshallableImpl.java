@@ -16,7 +16,6 @@ limitations under the License.
 
 package io.hotmoka.marshalling.internal;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
@@ -32,9 +31,14 @@ import io.hotmoka.marshalling.api.MarshallingContext;
  */
 public abstract class MarshallableImpl implements Marshallable {
 
+	/**
+	 * The default estimation of the size of a marshallable, in bytes.
+	 */
+	private final static int DEFAULT_ESTIMATED_SIZE = 32;
+
 	@Override
 	public final byte[] toByteArray() {
-		try (var baos = new ByteArrayOutputStream(); var context = createMarshallingContext(baos)) {
+		try (var baos = new SizedByteArrayOutputStream(Math.max(0, estimatedSize())); var context = createMarshallingContext(baos)) {
 			into(context);
 			context.flush();
 			return baos.toByteArray();
@@ -47,7 +51,34 @@ public abstract class MarshallableImpl implements Marshallable {
 
 	@Override
 	public final int size() {
-		return toByteArray().length;
+		var counter = new ByteCounter();
+
+		try (var context = createMarshallingContext(counter)) {
+			// our contexts only count the marshalled bytes, without producing them; others write them into the counter
+			if (context instanceof MarshallingContextImpl mci)
+				mci.countInto(counter);
+
+			into(context);
+			context.flush();
+			return Math.toIntExact(counter.count());
+		}
+		catch (IOException e) {
+			// impossible with a ByteCounter
+			throw new UncheckedIOException("Unexpected exception", e);
+		}
+	}
+
+	/**
+	 * Yields an estimation of the size of this object, in terms of bytes in marshalled form.
+	 * It is used by {@link #toByteArray()} to presize its buffer: if the estimation is exact,
+	 * the resulting array is that buffer itself and no copy is needed; if it is larger, the buffer
+	 * is trimmed with a single copy; if it is smaller, the buffer is grown as needed.
+	 * Subclasses whose size is known or cheaply computable should redefine this method.
+	 * 
+	 * @return the estimation of the size, in bytes. This is 32 by default, as the initial capacity of a {@link java.io.ByteArrayOutputStream}
+	 */
+	protected int estimatedSize() {
+		return DEFAULT_ESTIMATED_SIZE;
 	}
 
 	/**
@@ -0,0 +1,221 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import io.hotmoka.marshalling.api.MarshallerRegistry;
+import io.hotmoka.marshalling.api.ObjectMarshaller;
+import io.hotmoka.marshalling.api.ObjectUnmarshaller;
+
+/**
+ * Implementation of an immutable registry of object marshallers and unmarshallers,
+ * and of type tags. Lookups by class go through class values, hence they run in constant time and,
+ * after the first lookup of each class, without allocation. Lookups by type tag index an array.
+ * Registries are meant to be built once and shared by many contexts: their class values
+ * are only created at their first lookup.
+ */
+public class MarshallerRegistryImpl implements MarshallerRegistry {
+
+	/**
+	 * The registry without marshallers nor unmarshallers.
+	 */
+	public final static MarshallerRegistryImpl EMPTY = new MarshallerRegistryImpl(Map.of(), Map.of(), Map.of());
+
+	/**
+	 * The object marshallers in this registry, for each class.
+	 */
+	private final Map<Class<?>, ObjectMarshaller<?>> marshallers;
+
+	/**
+	 * The object unmarshallers in this registry, for each class.
+	 */
+	private final Map<Class<?>, ObjectUnmarshaller<?>> unmarshallers;
+
+	/**
+	 * The type tags in this registry, for each class.
+	 */
+	private final Map<Class<?>, Integer> tags;
+
+	/**
+	 * The object unmarshallers in this registry, indexed by the type tag of their class.
+	 * Elements are {@code null} for type tags without class or without object unmarshaller.
+	 */
+	private final ObjectUnmarshaller<?>[] unmarshallersByTag;
+
+	/**
+	 * The classes in this registry, indexed by their type tag.
+	 * Elements are {@code null} for type tags without class.
+	 */
+	private final Class<?>[] classesByTag;
+
+	/**
+	 * The class values used for the lookups by class. They are only created at the first
+	 * lookup, so that the intermediate registries, built while adding marshallers, unmarshallers
+	 * and type tags one at a time, do not create class values that would never be used.
+	 * This is {@code null} until the first lookup.
+	 */
+	private volatile Lookups lookups;
+
+	/**
+	 * The class values used for the lookups by class. Each yields the result of the lookup
+	 * of a class, computed from the maps of the registry at the first lookup of that class.
+	 */
+	private class Lookups {
+
+		/**
+		 * The object marshaller of each class, or {@code null} if there is none.
+		 */
+		private final ClassValue<ObjectMarshaller<?>> marshallerOf = new ClassValue<>() {
+
+			@Override
+			protected ObjectMarshaller<?> computeValue(Class<?> clazz) {
+				return marshallers.get(clazz);
+			}
+		};
+
+		/**
+		 * The object unmarshaller of each class, or {@code null} if there is none.
+		 */
+		private final ClassValue<ObjectUnmarshaller<?>> unmarshallerOf = new ClassValue<>() {
+
+			@Override
+			protected ObjectUnmarshaller<?> computeValue(Class<?> clazz) {
+				return unmarshallers.get(clazz);
+			}
+		};
+
+		/**
+		 * The type tag of each class, or -1 if there is none.
+		 */
+		private final ClassValue<Integer> tagOf = new ClassValue<>() {
+
+			@Override
+			protected Integer computeValue(Class<?> clazz) {
+				return tags.getOrDefault(clazz, -1);
+			}
+		};
+	}
+
+	private MarshallerRegistryImpl(Map<Class<?>, ObjectMarshaller<?>> marshallers, Map<Class<?>, ObjectUnmarshaller<?>> unmarshallers, Map<Class<?>, Integer> tags) {
+		this(marshallers, unmarshallers, tags, unmarshallersByTag(unmarshallers, tags), classesByTag(tags));
+	}
+
+	private MarshallerRegistryImpl(Map<Class<?>, ObjectMarshaller<?>> marshallers, Map<Class<?>, ObjectUnmarshaller<?>> unmarshallers, Map<Class<?>, Integer> tags, ObjectUnmarshaller<?>[] unmarshallersByTag, Class<?>[] classesByTag) {
+		this.marshallers = marshallers;
+		this.unmarshallers = unmarshallers;
+		this.tags = tags;
+		this.unmarshallersByTag = unmarshallersByTag;
+		this.classesByTag = classesByTag;
+	}
+
+	private static ObjectUnmarshaller<?>[] unmarshallersByTag(Map<Class<?>, ObjectUnmarshaller<?>> unmarshallers, Map<Class<?>, Integer> tags) {
+		var result = new ObjectUnmarshaller<?>[tags.values().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+		for (var entry: tags.entrySet())
+			result[entry.getValue()] = unmarshallers.get(entry.getKey());
+
+		return result;
+	}
+
+	private static Class<?>[] classesByTag(Map<Class<?>, Integer> tags) {
+		var result = new Class<?>[tags.values().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+		for (var entry: tags.entrySet())
+			result[entry.getValue()] = entry.getKey();
+
+		return result;
+	}
+
+	/**
+	 * Yields the class values used for the lookups by class, creating them at the first call.
+	 * 
+	 * @return the class values
+	 */
+	private Lookups lookups() {
+		var result = lookups;
+		if (result == null) {
+			synchronized (this) {
+				if ((result = lookups) == null)
+					lookups = result = new Lookups();
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <C> ObjectMarshaller<C> getMarshaller(Class<C> clazz) {
+		return (ObjectMarshaller<C>) lookups().marshallerOf.get(clazz);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <C> ObjectUnmarshaller<C> getUnmarshaller(Class<C> clazz) {
+		return (ObjectUnmarshaller<C>) lookups().unmarshallerOf.get(clazz);
+	}
+
+	@Override
+	public int getTag(Class<?> clazz) {
+		return lookups().tagOf.get(clazz);
+	}
+
+	@Override
+	public Class<?> getTaggedClass(int tag) {
+		return tag >= 0 && tag < classesByTag.length ? classesByTag[tag] : null;
+	}
+
+	@Override
+	public ObjectUnmarshaller<?> getUnmarshaller(int tag) {
+		return tag >= 0 && tag < unmarshallersByTag.length ? unmarshallersByTag[tag] : null;
+	}
+
+	@Override
+	public MarshallerRegistryImpl withMarshaller(ObjectMarshaller<?> marshaller) {
+		var copy = new HashMap<>(marshallers);
+		copy.put(Objects.requireNonNull(marshaller.clazz()), marshaller);
+		// the type tags are not affected
+		return new MarshallerRegistryImpl(Map.copyOf(copy), unmarshallers, tags, unmarshallersByTag, classesByTag);
+	}
+
+	@Override
+	public MarshallerRegistryImpl withUnmarshaller(ObjectUnmarshaller<?> unmarshaller) {
+		var copy = new HashMap<>(unmarshallers);
+		copy.put(Objects.requireNonNull(unmarshaller.clazz()), unmarshaller);
+		return new MarshallerRegistryImpl(marshallers, Map.copyOf(copy), tags);
+	}
+
+	@Override
+	public MarshallerRegistryImpl withTag(Class<?> clazz, int tag) {
+		Objects.requireNonNull(clazz);
+
+		if (tag < 0 || tag > MAX_TAG)
+			throw new IllegalArgumentException("Type tags must be between 0 and " + MAX_TAG);
+
+		Integer old = tags.get(clazz);
+		if (old != null && old != tag)
+			throw new IllegalArgumentException("Class " + clazz.getName() + " has already type tag " + old);
+
+		if (old == null && tags.containsValue(tag))
+			throw new IllegalArgumentException("Type tag " + tag + " is already used");
+
+		var copy = new HashMap<>(tags);
+		copy.put(clazz, tag);
+		return new MarshallerRegistryImpl(marshallers, unmarshallers, Map.copyOf(copy));
+	}
+}
@@ -16,100 +16,305 @@ limitations under the License.
 
 package io.hotmoka.marshalling.internal;
 
-import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import io.hotmoka.marshalling.api.Marshallable;
+import io.hotmoka.marshalling.api.MarshallerRegistry;
 import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.MarshallingFormat;
 import io.hotmoka.marshalling.api.ObjectMarshaller;
 
 /**
  * Implementation of a context used during object marshaling into bytes.
  */
 public class MarshallingContextImpl implements MarshallingContext {
-	private final DataOutputStream dos;
-	private final Map<String, Integer> memoryString = new HashMap<>();
 
 	/**
-	 * Object marshallers for specific classes, if any.
+	 * The number of slices per worker thread, in {@link #writeLengthAndArray(Marshallable[], ForkJoinPool)}.
+	 * More slices than workers balance the load if elements have different marshalling cost.
 	 */
-	private final Map<Class<?>, ObjectMarshaller<?>> objectMarshallers = new HashMap<>();
+	private final static int SLICES_PER_WORKER = 4;
 
+	/**
+	 * The initial capacity of the buffer of each slice, in {@link #writeLengthAndArray(Marshallable[], ForkJoinPool)}.
+	 */
+	private final static int INITIAL_SLICE_CAPACITY = 1024;
+
+	/**
+	 * The destination of the marshalled bytes. It is only replaced by {@link #countInto(ByteCounter)}.
+	 */
+	private Output out;
+
+	/**
+	 * A memory to avoid duplicated strings in the marshalled bytes.
+	 */
+	private final StringIndexMap memoryString = new StringIndexMap();
+
+	/**
+	 * The strings shared before this context started, if this context marshals a slice of
+	 * an array for {@link #writeLengthAndArray(Marshallable[], ForkJoinPool)}. Otherwise, this is {@code null}.
+	 * Only the strings with index smaller than {@link #frozenBound} are considered as already shared.
+	 */
+	private final StringIndexMap frozenStrings;
+
+	/**
+	 * The number of strings shared before this context started. The strings in {@link #memoryString}
+	 * have their index shifted by this amount.
+	 */
+	private final int frozenBound;
+
+	/**
+	 * The format of the marshalled bytes.
+	 */
+	private MarshallingFormat format = MarshallingFormat.V1;
+
+	/**
+	 * The registry of the object marshallers for specific classes.
+	 */
+	private MarshallerRegistry registry = MarshallerRegistryImpl.EMPTY;
+
+	/**
+	 * The object marshallers registered through {@link #registerObjectMarshaller(ObjectMarshaller)},
+	 * that take precedence over those in {@link #registry}. This is {@code null} if there are none.
+	 */
+	private Map<Class<?>, ObjectMarshaller<?>> registered;
+
+	/**
+	 * Creates a marshalling context that writes each primitive value
+	 * into the given output stream as soon as it is marshalled.
+	 * 
+	 * @param oos the output stream
+	 */
 	public MarshallingContextImpl(OutputStream oos) {
-		this.dos = new DataOutputStream(oos);
+		this.out = new StreamOutput(oos);
+		this.frozenStrings = null;
+		this.frozenBound = 0;
+	}
+
+	/**
+	 * Creates a marshalling context that accumulates the marshalled bytes into
+	 * an internal buffer of the given size and writes them into the given output stream
+	 * only when the buffer is full or when the context is flushed or closed. This reduces
+	 * the number of write operations on the output stream, which is relevant if it
+	 * is not already buffered, as for file or socket output streams. The bytes written into
+	 * the output stream are exactly those written by {@link #MarshallingContextImpl(OutputStream)}.
+	 * 
+	 * @param oos the output stream
+	 * @param bufferSize the size of the buffer, in bytes
+	 * @throws IllegalArgumentException if {@code bufferSize} is not positive
+	 */
+	public MarshallingContextImpl(OutputStream oos, int bufferSize) {
+		this.out = new StreamOutput(new BufferedOutputStream(oos, bufferSize));
+		this.frozenStrings = null;
+		this.frozenBound = 0;
+	}
+
+	/**
+	 * Creates a marshalling context that writes into the given channel. The marshalled
+	 * bytes are staged in a direct buffer of the given size, reused for the whole life of the context,
+	 * which is written into the channel when it is full or when the context is flushed or closed.
+	 * Arrays of bytes at least as large as the buffer are not copied into it but written
+	 * into the channel together with the buffer, through a gathering write if the channel
+	 * supports it. Closing the context closes the channel.
+	 * 
+	 * @param channel the channel, which must be in blocking mode
+	 * @param bufferSize the size of the buffer, in bytes
+	 * @throws IllegalArgumentException if {@code bufferSize} is smaller than 8
+	 */
+	public MarshallingContextImpl(WritableByteChannel channel, int bufferSize) {
+		this.out = new ChannelOutput(channel, bufferSize);
+		this.frozenStrings = null;
+		this.frozenBound = 0;
+	}
+
+	/**
+	 * Creates a marshalling context that writes into the given output.
+	 * 
+	 * @param out the output
+	 */
+	MarshallingContextImpl(Output out) {
+		this.out = out;
+		this.frozenStrings = null;
+		this.frozenBound = 0;
+	}
+
+	/**
+	 * Makes this context only count the bytes marshalled from now on, without producing them.
+	 * It is used by {@link MarshallableImpl#size()}, on a context that has not marshalled anything yet,
+	 * so that the contexts created by subclasses are honored, whatever their constructor.
+	 * 
+	 * @param counter the counter of the marshalled bytes
+	 */
+	void countInto(ByteCounter counter) {
+		this.out = new CountingOutput(counter);
+	}
+
+	/**
+	 * Creates a context that marshals a slice of an array for
+	 * {@link #writeLengthAndArray(Marshallable[], ForkJoinPool)}. It has the same
+	 * format and registry of object marshallers as the given parent context.
+	 * 
+	 * @param out the output
+	 * @param parent the parent context
+	 * @param frozenStrings the strings shared before this context started, or {@code null} if there are none;
+	 *                      they are only read, never modified
+	 * @param frozenBound the number of strings in {@code frozenStrings} that must be considered as already shared
+	 */
+	private MarshallingContextImpl(Output out, MarshallingContextImpl parent, StringIndexMap frozenStrings, int frozenBound) {
+		this.out = out;
+		this.format = parent.format;
+		this.registry = parent.registry;
+		this.registered = parent.registered;
+		this.frozenStrings = frozenStrings;
+		this.frozenBound = frozenBound;
 	}
 
 	/**
 	 * Registers an object marshaller. It will be used to marshall its class.
+	 * It takes precedence over the marshaller for the same class in the registry of this context.
+	 * Subclasses whose contexts are created often should rather build a registry once
+	 * and use it through {@link #setMarshallerRegistry(MarshallerRegistry)}.
 	 * 
 	 * @param om the object marshaller
 	 */
 	protected void registerObjectMarshaller(ObjectMarshaller<?> om) {
-		objectMarshallers.put(om.clazz(), om);
+		if (registered == null)
+			registered = new HashMap<>();
+
+		registered.put(Objects.requireNonNull(om.clazz()), om);
+	}
+
+	/**
+	 * Yields the object marshaller for the given class.
+	 * 
+	 * @param <C> the type of the class
+	 * @param clazz the class
+	 * @return the object marshaller, or {@code null} if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	private <C> ObjectMarshaller<C> marshallerOf(Class<C> clazz) {
+		if (registered != null) {
+			var om = (ObjectMarshaller<C>) registered.get(clazz);
+			if (om != null)
+				return om;
+		}
+
+		return registry.getMarshaller(clazz);
+	}
+
+	@Override
+	public void setMarshallerRegistry(MarshallerRegistry registry) {
+		this.registry = Objects.requireNonNull(registry);
+	}
+
+	@Override
+	public void setFormat(MarshallingFormat format) {
+		this.format = Objects.requireNonNull(format);
+	}
+
+	@Override
+	public MarshallingFormat getFormat() {
+		return format;
 	}
 
 	@Override
 	public <C> void writeObject(Class<C> clazz, C value) throws IOException {
+		var om = marshallerOf(clazz);
+		if (om == null)
+			throw new IOException("Missing object marshaller for class " + clazz.getName());
+
+		om.write(value, this);
+	}
+
+	@Override
+	public void writeTaggedObject(Object value) throws IOException {
 		@SuppressWarnings("unchecked")
-		var om = (ObjectMarshaller<C>) objectMarshallers.get(clazz);
+		var clazz = (Class<Object>) value.getClass();
+		int tag = registry.getTag(clazz);
+		if (tag < 0)
+			throw new IOException("Missing type tag for class " + clazz.getName());
+
+		var om = marshallerOf(clazz);
 		if (om == null)
 			throw new IOException("Missing object marshaller for class " + clazz.getName());
 
+		writeCompactInt(tag);
 		om.write(value, this);
 	}
 
 	@Override
 	public void writeStringShared(String s) throws IOException {
-		Integer index = memoryString.get(s);
+		if (memoryString.size() == Integer.MAX_VALUE - frozenBound) // irrealistic
+			throw new IOException("too many strings in the same context");
 
-		if (index != null) {
+		int index;
+		if (frozenStrings == null || (index = frozenStrings.indexOf(s)) < 0 || index >= frozenBound)
+			if ((index = memoryString.indexOrAdd(s)) >= 0)
+				index += frozenBound;
+
+		if (index >= 0) {
 			if (index < 254)
-				dos.writeByte(index);
+				out.writeByte(index);
 			else {
-				dos.writeByte(254);
-				dos.writeInt(index);
+				out.writeByte(254);
+				out.writeInt(index);
 			}
 		}
 		else {
-			int next = memoryString.size();
-			if (next == Integer.MAX_VALUE) // irrealistic
-				throw new IOException("too many strings in the same context");
-
-			memoryString.put(s, next);
-
-			dos.writeByte(255);
-			writeLengthAndBytes(s.getBytes(StandardCharsets.UTF_8));
+			out.writeByte(255);
+			writeLengthAndUTF8(s);
 		}
 	}
 
 	@Override
 	public final void writeStringUnshared(String s) throws IOException {
-		writeLengthAndBytes(s.getBytes(StandardCharsets.UTF_8));
+		writeLengthAndUTF8(s);
+	}
+
+	/**
+	 * Writes the length of the UTF-8 encoding of the given string, followed by that encoding.
+	 * This is equivalent to {@code writeLengthAndBytes(s.getBytes(StandardCharsets.UTF_8))}
+	 * but lets the output avoid the materialization of the encoding.
+	 * 
+	 * @param s the string
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void writeLengthAndUTF8(String s) throws IOException {
+		int length = Utf8.length(s);
+		writeCompactInt(length);
+		out.writeUTF8(s, length);
 	}
 
 	@Override
 	public void writeByte(int b) throws IOException {
-		dos.writeByte(b);
+		out.writeByte(b);
 	}
 
 	@Override
 	public void writeChar(int c) throws IOException {
-		dos.writeChar(c);
+		out.writeChar(c);
 	}
 
 	@Override
 	public void writeInt(int i) throws IOException {
-		dos.writeInt(i);
+		out.writeInt(i);
 	}
 
 	@Override
 	public void writeCompactInt(int i) throws IOException {
-		if (i >= 0 && i < 254)
+		if (format == MarshallingFormat.V3)
+			out.writeVarLong(Integer.toUnsignedLong(i));
+		else if (i >= 0 && i < 254)
 			writeByte(i);
 		else if (i >= Short.MIN_VALUE && i <= Short.MAX_VALUE) {
 			writeByte(254);
@@ -123,7 +328,7 @@ public class MarshallingContextImpl implements MarshallingContext {
 
 	@Override
 	public void writeBytes(byte[] bytes) throws IOException {
-		dos.write(bytes);
+		out.write(bytes, 0, bytes.length);
 	}
 
 	@Override
@@ -140,24 +345,255 @@ public class MarshallingContextImpl implements MarshallingContext {
 			marshallable.into(this);
 	}
 
+	@Override
+	public void writeLengthAndArray(Marshallable[] marshallables, ForkJoinPool pool) throws IOException {
+		// the slices of an array are marshalled sequentially, since the shared strings of their contexts are relative to a frozen dictionary
+		if (frozenStrings != null || marshallables.length < 2 || pool.getParallelism() < 2) {
+			writeLengthAndArray(marshallables);
+			return;
+		}
+
+		writeCompactInt(marshallables.length);
+
+		int slicesCount = Math.min(marshallables.length, pool.getParallelism() * SLICES_PER_WORKER);
+		var slices = new ArraySlice[slicesCount];
+		for (int pos = 0; pos < slicesCount; pos++)
+			slices[pos] = new ArraySlice(marshallables, (int) ((long) marshallables.length * pos / slicesCount), (int) ((long) marshallables.length * (pos + 1) / slicesCount));
+
+		// first round: each slice assumes that it is the first to share new strings
+		int initialStrings = memoryString.size();
+		for (var slice: slices)
+			slice.bound = initialStrings;
+
+		marshal(slices, pool);
+
+		// the strings shared by the slices are added to the memory in order; a slice is remarshalled
+		// if it follows one that shared new strings, since its indexes of shared strings were wrong;
+		// the memory is not modified during the second round, hence it can be read concurrently
+		var wrong = new ArrayList<ArraySlice>();
+		for (var slice: slices) {
+			if (memoryString.size() != slice.bound) {
+				slice.bound = memoryString.size();
+				wrong.add(slice);
+			}
+
+			for (String s: slice.sharedStrings)
+				if (memoryString.indexOrAdd(s) < 0 && memoryString.size() == Integer.MAX_VALUE) // irrealistic
+					throw new IOException("too many strings in the same context");
+		}
+
+		if (!wrong.isEmpty())
+			marshal(wrong.toArray(ArraySlice[]::new), pool);
+
+		for (var slice: slices)
+			slice.output.writeInto(out);
+	}
+
+	@Override
+	public void writeIndexedArray(Marshallable[] marshallables) throws IOException {
+		var slice = new ArraySlice(marshallables, 0, marshallables.length, true);
+		slice.marshal();
+		if (slice.failure != null)
+			throw slice.failure;
+
+		writeIndexedSlices(marshallables.length, new ArraySlice[] { slice });
+	}
+
+	@Override
+	public void writeIndexedArray(Marshallable[] marshallables, ForkJoinPool pool) throws IOException {
+		if (marshallables.length < 2 || pool.getParallelism() < 2) {
+			writeIndexedArray(marshallables);
+			return;
+		}
+
+		int slicesCount = Math.min(marshallables.length, pool.getParallelism() * SLICES_PER_WORKER);
+		var slices = new ArraySlice[slicesCount];
+		for (int pos = 0; pos < slicesCount; pos++)
+			slices[pos] = new ArraySlice(marshallables, (int) ((long) marshallables.length * pos / slicesCount), (int) ((long) marshallables.length * (pos + 1) / slicesCount), true);
+
+		// the elements of an indexed array are independent, hence a single round is enough
+		marshal(slices, pool);
+		writeIndexedSlices(marshallables.length, slices);
+	}
+
+	/**
+	 * Writes an indexed array, whose elements have been already marshalled into the given slices.
+	 * The array is written as its length, followed by the number of bytes (1, 2 or 4) used for its
+	 * offsets, by the offsets where each element ends, relative to the start of the first element,
+	 * and finally by the elements.
+	 * 
+	 * @param length the length of the array
+	 * @param slices the slices of the array, in order
+	 * @throws IOException if an I/O error occurs or if the array is too large
+	 */
+	private void writeIndexedSlices(int length, ArraySlice[] slices) throws IOException {
+		long total = 0L;
+		for (var slice: slices)
+			total += slice.output.size();
+
+		if (total > Integer.MAX_VALUE)
+			throw new IOException("Indexed array too large");
+
+		int width = total <= 0xFF ? 1 : total <= 0xFFFF ? 2 : 4;
+
+		writeCompactInt(length);
+		out.writeByte(width);
+
+		int base = 0;
+		for (var slice: slices) {
+			for (int end: slice.ends) {
+				int offset = base + end;
+				if (width == 1)
+					out.writeByte(offset);
+				else if (width == 2)
+					out.writeShort(offset);
+				else
+					out.writeInt(offset);
+			}
+
+			base += slice.output.size();
+		}
+
+		for (var slice: slices)
+			slice.output.writeInto(out);
+	}
+
+	/**
+	 * Marshals the given slices concurrently, in the given pool.
+	 * 
+	 * @param slices the slices
+	 * @param pool the pool
+	 * @throws IOException if some slice could not be marshalled
+	 */
+	private void marshal(ArraySlice[] slices, ForkJoinPool pool) throws IOException {
+		var tasks = new ForkJoinTask<?>[slices.length];
+		for (int pos = 0; pos < slices.length; pos++)
+			tasks[pos] = pool.submit(slices[pos]::marshal);
+
+		for (var task: tasks)
+			task.join();
+
+		for (var slice: slices)
+			if (slice.failure != null)
+				throw slice.failure;
+	}
+
+	/**
+	 * A contiguous slice of an array, marshalled into its own buffer by
+	 * {@link MarshallingContextImpl#writeLengthAndArray(Marshallable[], ForkJoinPool)}
+	 * and by {@link MarshallingContextImpl#writeIndexedArray(Marshallable[], ForkJoinPool)}.
+	 */
+	private class ArraySlice {
+		private final Marshallable[] marshallables;
+		private final int from;
+		private final int to;
+
+		/**
+		 * The number of strings considered as already shared when this slice starts.
+		 */
+		private int bound;
+
+		/**
+		 * The bytes of this slice, after it has been marshalled.
+		 */
+		private ByteBufferOutput output;
+
+		/**
+		 * The strings shared for the first time in this slice, in order, after it has been marshalled.
+		 */
+		private String[] sharedStrings;
+
+		/**
+		 * The offsets in {@link #output} where each element ends, if the elements
+		 * of this slice are marshalled independently, for an indexed array. Otherwise, this is {@code null}.
+		 */
+		private final int[] ends;
+
+		/**
+		 * The exception raised while marshalling this slice, if any.
+		 */
+		private IOException failure;
+
+		private ArraySlice(Marshallable[] marshallables, int from, int to) {
+			this(marshallables, from, to, false);
+		}
+
+		private ArraySlice(Marshallable[] marshallables, int from, int to, boolean indexed) {
+			this.marshallables = marshallables;
+			this.from = from;
+			this.to = to;
+			this.ends = indexed ? new int[to - from] : null;
+		}
+
+		private void marshal() {
+			output = new ByteBufferOutput(INITIAL_SLICE_CAPACITY, false);
+
+			try {
+				if (ends != null) {
+					// each element gets its own context, so that it shares strings only with itself
+					for (int pos = from; pos < to; pos++) {
+						marshallables[pos].into(new MarshallingContextImpl(output, MarshallingContextImpl.this, null, 0));
+						ends[pos - from] = output.size();
+					}
+				}
+				else {
+					var context = new MarshallingContextImpl(output, MarshallingContextImpl.this, memoryString, bound);
+					for (int pos = from; pos < to; pos++)
+						marshallables[pos].into(context);
+
+					sharedStrings = context.memoryString.toArray();
+				}
+			}
+			catch (IOException e) {
+				failure = e;
+			}
+		}
+	}
+
+	@Override
+	public void writeLongArray(long[] values) throws IOException {
+		writeCompactInt(values.length);
+		out.writeBulk(values.length, Long.BYTES, (buffer, offset, count) -> buffer.asLongBuffer().put(values, offset, count));
+	}
+
+	@Override
+	public void writeIntArray(int[] values) throws IOException {
+		writeCompactInt(values.length);
+		out.writeBulk(values.length, Integer.BYTES, (buffer, offset, count) -> buffer.asIntBuffer().put(values, offset, count));
+	}
+
+	@Override
+	public void writeShortArray(short[] values) throws IOException {
+		writeCompactInt(values.length);
+		out.writeBulk(values.length, Short.BYTES, (buffer, offset, count) -> buffer.asShortBuffer().put(values, offset, count));
+	}
+
+	@Override
+	public void writeDoubleArray(double[] values) throws IOException {
+		writeCompactInt(values.length);
+		out.writeBulk(values.length, Double.BYTES, (buffer, offset, count) -> buffer.asDoubleBuffer().put(values, offset, count));
+	}
+
 	@Override
 	public void writeDouble(double d) throws IOException {
-		dos.writeDouble(d);
+		out.writeDouble(d);
 	}
 
 	@Override
 	public void writeFloat(float f) throws IOException {
-		dos.writeFloat(f);
+		out.writeFloat(f);
 	}
 
 	@Override
 	public void writeLong(long l) throws IOException {
-		dos.writeLong(l);
+		out.writeLong(l);
 	}
 
 	@Override
 	public void writeCompactLong(long l) throws IOException {
-		if (l >= 0 && l < 253)
+		if (format == MarshallingFormat.V3)
+			out.writeVarLong(Varints.zigZag(l));
+		else if (l >= 0 && l < 253)
 			writeByte((int) l);
 		else if (l >= Short.MIN_VALUE && l <= Short.MAX_VALUE) {
 			writeByte(253);
@@ -175,19 +611,22 @@ public class MarshallingContextImpl implements MarshallingContext {
 
 	@Override
 	public void writeShort(int s) throws IOException {
-		dos.writeShort(s);
+		out.writeShort(s);
 	}
 
 	@Override
 	public void writeBoolean(boolean b) throws IOException {
-		dos.writeBoolean(b);
+		out.writeBoolean(b);
 	}
 
 	@Override
 	public void writeBigInteger(BigInteger bi) throws IOException {
-		short small = bi.shortValue();
+		// bitLength() excludes the sign bit, hence a value fits into a primitive type
+		// with n bits if and only if its bit length is smaller than n
+		int bitLength = bi.bitLength();
 
-		if (BigInteger.valueOf(small).equals(bi)) {
+		if (bitLength < Short.SIZE) {
+			short small = bi.shortValue();
 			if (0 <= small && small <= 251)
 				writeByte(4 + small);
 			else {
@@ -195,27 +634,32 @@ public class MarshallingContextImpl implements MarshallingContext {
 				writeShort(small);
 			}
 		}
-		else if (BigInteger.valueOf(bi.intValue()).equals(bi)) {
+		else if (bitLength < Integer.SIZE) {
 			writeByte(1);
 			writeInt(bi.intValue());
 		}
-		else if (BigInteger.valueOf(bi.longValue()).equals(bi)) {
+		else if (bitLength < Long.SIZE) {
 			writeByte(2);
 			writeLong(bi.longValue());
 		}
 		else {
 			writeByte(3);
-			writeLengthAndBytes(bi.toString().getBytes());
+
+			if (format == MarshallingFormat.V1)
+				// the decimal representation is made of ASCII characters only
+				writeLengthAndUTF8(bi.toString());
+			else
+				writeLengthAndBytes(bi.toByteArray());
 		}
 	}
 
 	@Override
 	public void flush() throws IOException {
-		dos.flush();
+		out.flush();
 	}
 
 	@Override
 	public void close() throws IOException {
-		dos.close();
+		out.close();
 	}
 }
\ No newline at end of file
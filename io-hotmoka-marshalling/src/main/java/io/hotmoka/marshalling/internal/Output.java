@@ -0,0 +1,203 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The destination of the bytes of a marshalling context. Multibyte
+ * values are written in big-endian order, as in {@link java.io.DataOutput}.
+ */
+abstract class Output {
+
+	/**
+	 * The size of {@link #scratch} when it is used at its largest.
+	 * Longer encodings of strings are materialized into a fresh array,
+	 * so that a single long string does not keep a large scratch array alive,
+	 * and arrays of primitive values are written in chunks of this size.
+	 */
+	private final static int MAX_SCRATCH_LENGTH = 8192;
+
+	/**
+	 * A reusable array where strings and arrays of primitive values
+	 * are encoded before being written.
+	 */
+	private byte[] scratch = new byte[0];
+
+	/**
+	 * Writes the 8 least significant bits of the given integer.
+	 * 
+	 * @param b the byte to write
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract void writeByte(int b) throws IOException;
+
+	/**
+	 * Writes the 16 least significant bits of the given integer.
+	 * 
+	 * @param s the short to write
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract void writeShort(int s) throws IOException;
+
+	/**
+	 * Writes the 16 least significant bits of the given integer.
+	 * 
+	 * @param c the character to write
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract void writeChar(int c) throws IOException;
+
+	/**
+	 * Writes the given integer, in four bytes.
+	 * 
+	 * @param i the integer to write
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract void writeInt(int i) throws IOException;
+
+	/**
+	 * Writes the given long, in eight bytes.
+	 * 
+	 * @param l the long to write
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract void writeLong(long l) throws IOException;
+
+	/**
+	 * Writes the given float, in four bytes.
+	 * 
+	 * @param f the float to write
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeFloat(float f) throws IOException {
+		writeInt(Float.floatToIntBits(f));
+	}
+
+	/**
+	 * Writes the given double, in eight bytes.
+	 * 
+	 * @param d the double to write
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeDouble(double d) throws IOException {
+		writeLong(Double.doubleToLongBits(d));
+	}
+
+	/**
+	 * Writes the given boolean, in a byte.
+	 * 
+	 * @param b the boolean to write
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeBoolean(boolean b) throws IOException {
+		writeByte(b ? 1 : 0);
+	}
+
+	/**
+	 * Writes {@code len} bytes from the given array, starting at {@code off}.
+	 * 
+	 * @param bytes the array
+	 * @param off the starting offset in {@code bytes}
+	 * @param len the number of bytes to write
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract void write(byte[] bytes, int off, int len) throws IOException;
+
+	/**
+	 * Writes the LEB128 variable-length encoding of the given value.
+	 * 
+	 * @param value the value, considered as unsigned
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeVarLong(long value) throws IOException {
+		while ((value & ~0x7FL) != 0L) {
+			writeByte((int) value | 0x80);
+			value >>>= 7;
+		}
+
+		writeByte((int) value);
+	}
+
+	/**
+	 * Writes the UTF-8 encoding of the given string.
+	 * 
+	 * @param s the string
+	 * @param length the number of bytes of the UTF-8 encoding of {@code s}, as computed by {@link Utf8#length(String)}
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeUTF8(String s, int length) throws IOException {
+		if (length <= MAX_SCRATCH_LENGTH) {
+			byte[] bytes = scratch(length);
+			Utf8.encode(s, bytes, 0);
+			write(bytes, 0, length);
+		}
+		else {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			write(bytes, 0, bytes.length);
+		}
+	}
+
+	/**
+	 * Writes, in big-endian order, the elements of an array of primitive values.
+	 * 
+	 * @param count the number of elements
+	 * @param elementSize the number of bytes of each element
+	 * @param put the transfer that puts the elements into a buffer
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeBulk(int count, int elementSize, BulkTransfer put) throws IOException {
+		int maxChunk = MAX_SCRATCH_LENGTH / elementSize;
+
+		for (int offset = 0, chunk; offset < count; offset += chunk) {
+			chunk = Math.min(count - offset, maxChunk);
+			int length = chunk * elementSize;
+			byte[] bytes = scratch(length);
+			put.transfer(ByteBuffer.wrap(bytes, 0, length), offset, chunk);
+			write(bytes, 0, length);
+		}
+	}
+
+	/**
+	 * Yields {@link #scratch}, enlarged if needed.
+	 * 
+	 * @param length the minimal length of the scratch array, at most {@link #MAX_SCRATCH_LENGTH}
+	 * @return the scratch array
+	 */
+	private byte[] scratch(int length) {
+		if (length > scratch.length)
+			scratch = new byte[Math.min(MAX_SCRATCH_LENGTH, Math.max(length, Math.max(64, scratch.length << 1)))];
+
+		return scratch;
+	}
+
+	/**
+	 * Flushes the bytes buffered by this output, if any.
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract void flush() throws IOException;
+
+	/**
+	 * Closes this output.
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract void close() throws IOException;
+}
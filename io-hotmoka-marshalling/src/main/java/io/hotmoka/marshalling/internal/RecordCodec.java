@@ -0,0 +1,302 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.UnmarshallingContext;
+
+/**
+ * A marshaller and unmarshaller of the records of a given class. Its instances are
+ * spun at run time as hidden classes, that keep the method handles built by {@link RecordHandles}
+ * in static final fields. The JIT treats such fields as constants, hence it inlines
+ * the handles into {@link #write(Object, MarshallingContext)} and {@link #read(UnmarshallingContext)},
+ * down to the calls to the accessors, to the canonical constructor and to the methods of the contexts.
+ */
+public abstract class RecordCodec {
+
+	/**
+	 * The name of the hidden classes, that the JVM makes unique by adding a suffix.
+	 */
+	private final static String SPUN = "io/hotmoka/marshalling/internal/RecordCodec$Spun";
+
+	/**
+	 * The bytecode of the hidden classes. It is the same for every record, since the
+	 * method handles are passed to each hidden class as class data.
+	 */
+	private final static byte[] BYTECODE = bytecode();
+
+	/**
+	 * Creates the codec.
+	 */
+	RecordCodec() {}
+
+	/**
+	 * Yields a codec for the records of the given class.
+	 * 
+	 * @param record the class of the records
+	 * @param lookup the lookup used to access the accessors and the canonical constructor of the records
+	 * @return the codec
+	 * @throws IllegalArgumentException if {@code record} is not a record or has components that cannot be marshalled
+	 */
+	public static RecordCodec of(Class<? extends Record> record, Lookup lookup) {
+		MethodHandle writer = RecordHandles.writer(record, lookup).asType(methodType(void.class, Object.class, MarshallingContext.class));
+		MethodHandle reader = RecordHandles.reader(record, lookup).asType(methodType(Object.class, UnmarshallingContext.class));
+
+		try {
+			Class<?> spun = MethodHandles.lookup().defineHiddenClassWithClassData(BYTECODE, List.of(writer, reader), true).lookupClass();
+			return (RecordCodec) spun.getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException e) {
+			// impossible, the hidden class has a public constructor without parameters
+			throw new IllegalStateException("Unexpected exception", e);
+		}
+	}
+
+	/**
+	 * Marshals the given record into the given context.
+	 * 
+	 * @param record the record, that must be an instance of the class of this codec
+	 * @param context the context
+	 * @throws IOException if the record could not be marshalled
+	 */
+	abstract void write(Object record, MarshallingContext context) throws IOException;
+
+	/**
+	 * Unmarshals a record from the given context.
+	 * 
+	 * @param context the context
+	 * @return the record, an instance of the class of this codec
+	 * @throws IOException if the record could not be unmarshalled
+	 */
+	abstract Object read(UnmarshallingContext context) throws IOException;
+
+	/**
+	 * Yields the bytecode of a final subclass of this class, that reads the writer and
+	 * the reader method handles from its class data, at initialization time, and
+	 * implements {@link #write(Object, MarshallingContext)} and {@link #read(UnmarshallingContext)}
+	 * by invoking them.
+	 * 
+	 * @return the bytecode
+	 */
+	private static byte[] bytecode() {
+		final String CODEC = "io/hotmoka/marshalling/internal/RecordCodec";
+		final String HANDLE = "java/lang/invoke/MethodHandle";
+		final String HANDLES = "java/lang/invoke/MethodHandles";
+		final String HANDLE_DESCRIPTOR = "L" + HANDLE + ";";
+		final String WRITE_DESCRIPTOR = "(Ljava/lang/Object;Lio/hotmoka/marshalling/api/MarshallingContext;)V";
+		final String READ_DESCRIPTOR = "(Lio/hotmoka/marshalling/api/UnmarshallingContext;)Ljava/lang/Object;";
+
+		try {
+			var pool = new ConstantPool();
+			int writerField = pool.fieldRef(SPUN, "WRITER", HANDLE_DESCRIPTOR);
+			int readerField = pool.fieldRef(SPUN, "READER", HANDLE_DESCRIPTOR);
+
+			var init = new ByteArrayOutputStream();
+			init.write(ALOAD_0);
+			writeIndex(init, INVOKESPECIAL, pool.methodRef(CODEC, "<init>", "()V"));
+			init.write(RETURN);
+
+			var clinit = new ByteArrayOutputStream();
+			int lookup = pool.methodRef(HANDLES, "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;");
+			int classDataAt = pool.methodRef(HANDLES, "classDataAt", "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;");
+			int handleClass = pool.classRef(HANDLE);
+			for (int field: new int[] { writerField, readerField }) {
+				// FIELD = (MethodHandle) MethodHandles.classDataAt(MethodHandles.lookup(), "_", MethodHandle.class, 0 or 1)
+				writeIndex(clinit, INVOKESTATIC, lookup);
+				writeIndex(clinit, LDC_W, pool.string("_"));
+				writeIndex(clinit, LDC_W, handleClass);
+				clinit.write(field == writerField ? ICONST_0 : ICONST_1);
+				writeIndex(clinit, INVOKESTATIC, classDataAt);
+				writeIndex(clinit, CHECKCAST, handleClass);
+				writeIndex(clinit, PUTSTATIC, field);
+			}
+			clinit.write(RETURN);
+
+			var write = new ByteArrayOutputStream();
+			writeIndex(write, GETSTATIC, writerField);
+			write.write(ALOAD_1);
+			write.write(ALOAD_2);
+			writeIndex(write, INVOKEVIRTUAL, pool.methodRef(HANDLE, "invokeExact", WRITE_DESCRIPTOR));
+			write.write(RETURN);
+
+			var read = new ByteArrayOutputStream();
+			writeIndex(read, GETSTATIC, readerField);
+			read.write(ALOAD_1);
+			writeIndex(read, INVOKEVIRTUAL, pool.methodRef(HANDLE, "invokeExact", READ_DESCRIPTOR));
+			read.write(ARETURN);
+
+			// the pool must be complete before being written, hence all its entries are created before this point
+			int thisClass = pool.classRef(SPUN), superClass = pool.classRef(CODEC);
+			int writerName = pool.utf8("WRITER"), readerName = pool.utf8("READER"), handleDescriptor = pool.utf8(HANDLE_DESCRIPTOR);
+			int initName = pool.utf8("<init>"), clinitName = pool.utf8("<clinit>"), voidDescriptor = pool.utf8("()V");
+			int writeName = pool.utf8("write"), writeDescriptor = pool.utf8(WRITE_DESCRIPTOR);
+			int readName = pool.utf8("read"), readDescriptor = pool.utf8(READ_DESCRIPTOR);
+			int code = pool.utf8("Code");
+
+			var bytes = new ByteArrayOutputStream();
+			var out = new DataOutputStream(bytes);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0); // minor version
+			out.writeShort(61); // major version: Java 17
+			pool.writeInto(out);
+			out.writeShort(ACC_FINAL | ACC_SUPER);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(0); // interfaces
+
+			out.writeShort(2); // fields
+			for (int name: new int[] { writerName, readerName }) {
+				out.writeShort(ACC_PRIVATE | ACC_STATIC | ACC_FINAL);
+				out.writeShort(name);
+				out.writeShort(handleDescriptor);
+				out.writeShort(0); // attributes
+			}
+
+			out.writeShort(4); // methods
+			writeMethod(out, ACC_PUBLIC, initName, voidDescriptor, code, 1, 1, init);
+			writeMethod(out, ACC_STATIC, clinitName, voidDescriptor, code, 4, 0, clinit);
+			writeMethod(out, ACC_FINAL, writeName, writeDescriptor, code, 3, 3, write);
+			writeMethod(out, ACC_FINAL, readName, readDescriptor, code, 2, 2, read);
+
+			out.writeShort(0); // attributes
+			out.flush();
+
+			return bytes.toByteArray();
+		}
+		catch (IOException e) {
+			// impossible with a ByteArrayOutputStream
+			throw new UncheckedIOException("Unexpected exception", e);
+		}
+	}
+
+	private static void writeIndex(ByteArrayOutputStream code, int opcode, int index) {
+		code.write(opcode);
+		code.write(index >>> 8);
+		code.write(index);
+	}
+
+	/**
+	 * Writes a method with straight-line code, that consequently needs no stack map table.
+	 */
+	private static void writeMethod(DataOutputStream out, int flags, int name, int descriptor, int codeName, int maxStack, int maxLocals, ByteArrayOutputStream code) throws IOException {
+		out.writeShort(flags);
+		out.writeShort(name);
+		out.writeShort(descriptor);
+		out.writeShort(1); // attributes
+		out.writeShort(codeName);
+		out.writeInt(12 + code.size());
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.size());
+		code.writeTo(out);
+		out.writeShort(0); // exception table
+		out.writeShort(0); // attributes of the code
+	}
+
+	private final static int ACC_PUBLIC = 0x0001, ACC_PRIVATE = 0x0002, ACC_STATIC = 0x0008, ACC_FINAL = 0x0010, ACC_SUPER = 0x0020;
+	private final static int ICONST_0 = 0x03, ICONST_1 = 0x04, LDC_W = 0x13, ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, ALOAD_2 = 0x2c;
+	private final static int ARETURN = 0xb0, RETURN = 0xb1, GETSTATIC = 0xb2, PUTSTATIC = 0xb3;
+	private final static int INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8, CHECKCAST = 0xc0;
+
+	/**
+	 * The constant pool of the bytecode of the hidden classes, whose entries are created on demand.
+	 */
+	private static class ConstantPool {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private final Map<String, Integer> indexes = new HashMap<>();
+
+		/**
+		 * The index of the next entry: index 0 is not used.
+		 */
+		private int next = 1;
+
+		private int utf8(String s) throws IOException {
+			Integer index = indexes.get("U" + s);
+			if (index == null) {
+				out.writeByte(1);
+				out.writeUTF(s);
+				indexes.put("U" + s, index = next++);
+			}
+
+			return index;
+		}
+
+		private int classRef(String name) throws IOException {
+			return entry(7, utf8(name), -1);
+		}
+
+		private int string(String s) throws IOException {
+			return entry(8, utf8(s), -1);
+		}
+
+		private int fieldRef(String owner, String name, String descriptor) throws IOException {
+			return entry(9, classRef(owner), nameAndType(name, descriptor));
+		}
+
+		private int methodRef(String owner, String name, String descriptor) throws IOException {
+			return entry(10, classRef(owner), nameAndType(name, descriptor));
+		}
+
+		private int nameAndType(String name, String descriptor) throws IOException {
+			return entry(12, utf8(name), utf8(descriptor));
+		}
+
+		/**
+		 * Yields the index of the entry with the given tag, referring to one or two other entries.
+		 * 
+		 * @param tag the tag of the entry
+		 * @param first the first referred entry
+		 * @param second the second referred entry, or -1 if the entry refers to a single entry
+		 * @return the index of the entry
+		 * @throws IOException if the entry cannot be written
+		 */
+		private int entry(int tag, int first, int second) throws IOException {
+			String key = tag + ":" + first + ":" + second;
+			Integer index = indexes.get(key);
+			if (index == null) {
+				out.writeByte(tag);
+				out.writeShort(first);
+				if (second >= 0)
+					out.writeShort(second);
+
+				indexes.put(key, index = next++);
+			}
+
+			return index;
+		}
+
+		private void writeInto(DataOutputStream where) throws IOException {
+			out.flush();
+			where.writeShort(next);
+			bytes.writeTo(where);
+		}
+	}
+}
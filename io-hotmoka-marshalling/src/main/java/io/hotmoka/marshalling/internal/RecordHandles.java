@@ -0,0 +1,259 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+
+import io.hotmoka.marshalling.api.Compact;
+import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.Shared;
+import io.hotmoka.marshalling.api.UnmarshallingContext;
+
+/**
+ * A builder of the method handles that marshal and unmarshal records, component by component.
+ * The components are inspected once, through reflection; the resulting handles are trees
+ * of direct calls to the accessors, to the canonical constructor and to the methods of the
+ * contexts, that the JIT can inline as if they were written by hand. The encoding of the
+ * components is the same used by the marshallers generated for the records annotated as
+ * {@link io.hotmoka.marshalling.api.Marshalled}, hence the bytes are the same as well.
+ */
+final class RecordHandles {
+
+	/**
+	 * The lookup used to access the methods of the contexts.
+	 */
+	private final static Lookup CONTEXTS = MethodHandles.lookup();
+
+	/**
+	 * The lookup used to access the accessors and the canonical constructor of the records.
+	 */
+	private final Lookup lookup;
+
+	/**
+	 * The records whose handles are being built, used to reject recursive records.
+	 */
+	private final Set<Class<?>> beingBuilt = new HashSet<>();
+
+	private RecordHandles(Lookup lookup) {
+		this.lookup = lookup;
+	}
+
+	/**
+	 * Yields a method handle of type {@code (record, MarshallingContext)void}, that marshals
+	 * a record into a context.
+	 * 
+	 * @param record the class of the record
+	 * @param lookup the lookup used to access the accessors of the record
+	 * @return the method handle
+	 * @throws IllegalArgumentException if {@code record} is not a record or has components that cannot be marshalled
+	 */
+	static MethodHandle writer(Class<?> record, Lookup lookup) {
+		return new RecordHandles(lookup).writerOf(record);
+	}
+
+	/**
+	 * Yields a method handle of type {@code (UnmarshallingContext)record}, that unmarshals
+	 * a record from a context.
+	 * 
+	 * @param record the class of the record
+	 * @param lookup the lookup used to access the canonical constructor of the record
+	 * @return the method handle
+	 * @throws IllegalArgumentException if {@code record} is not a record or has components that cannot be unmarshalled
+	 */
+	static MethodHandle reader(Class<?> record, Lookup lookup) {
+		return new RecordHandles(lookup).readerOf(record);
+	}
+
+	private MethodHandle writerOf(Class<?> record) {
+		RecordComponent[] components = componentsOf(record);
+
+		try {
+			// we start from the last component, so that the first is the outermost and gets written first
+			MethodHandle result = MethodHandles.empty(methodType(void.class, record, MarshallingContext.class));
+			for (int pos = components.length - 1; pos >= 0; pos--) {
+				MethodHandle accessor = accessorOf(components[pos]);
+				MethodHandle write = MethodHandles.filterArguments(writerOf(components[pos]), 0, accessor);
+				result = MethodHandles.foldArguments(result, write);
+			}
+
+			return result;
+		}
+		finally {
+			beingBuilt.remove(record);
+		}
+	}
+
+	private MethodHandle readerOf(Class<?> record) {
+		RecordComponent[] components = componentsOf(record);
+
+		try {
+			Class<?>[] types = new Class<?>[components.length];
+			for (int pos = 0; pos < types.length; pos++)
+				types[pos] = components[pos].getType();
+
+			// (T1, ..., Tn, UnmarshallingContext)record
+			MethodHandle result = MethodHandles.dropArguments(constructorOf(record, types), types.length, UnmarshallingContext.class);
+
+			// we replace the parameters from the last one, so that the first component is the outermost and gets read first
+			for (int pos = components.length - 1; pos >= 0; pos--)
+				result = MethodHandles.foldArguments(result, pos, readerOf(components[pos]));
+
+			return result;
+		}
+		finally {
+			beingBuilt.remove(record);
+		}
+	}
+
+	/**
+	 * Checks that the given class is a record that is not already being built, and yields its components.
+	 * 
+	 * @param record the class
+	 * @return the components of {@code record}
+	 */
+	private RecordComponent[] componentsOf(Class<?> record) {
+		if (!record.isRecord())
+			throw new IllegalArgumentException(record.getName() + " is not a record");
+
+		if (!beingBuilt.add(record))
+			throw new IllegalArgumentException("Recursive record " + record.getName() + " cannot be marshalled");
+
+		return record.getRecordComponents();
+	}
+
+	/**
+	 * Yields a method handle of type {@code (T, MarshallingContext)void}, that marshals a value of the
+	 * type {@code T} of the given component.
+	 */
+	private MethodHandle writerOf(RecordComponent component) {
+		Class<?> type = component.getType();
+		check(component);
+
+		if (type.isRecord())
+			return writerOf(type);
+
+		String name = writerNameOf(component);
+		if (name == null)
+			throw new IllegalArgumentException("Components of type " + type.getName() + " cannot be marshalled: " + component);
+
+		// (MarshallingContext, T)void, with the parameters swapped into (T, MarshallingContext)void
+		MethodHandle write = contextMethod(MarshallingContext.class, name, methodType(void.class, type));
+		return MethodHandles.permuteArguments(write, methodType(void.class, type, MarshallingContext.class), 1, 0);
+	}
+
+	/**
+	 * Yields a method handle of type {@code (UnmarshallingContext)T}, that unmarshals a value of the
+	 * type {@code T} of the given component.
+	 */
+	private MethodHandle readerOf(RecordComponent component) {
+		Class<?> type = component.getType();
+		check(component);
+
+		if (type.isRecord())
+			return readerOf(type);
+
+		if (type == byte[].class) {
+			MethodHandle read = contextMethod(UnmarshallingContext.class, "readLengthAndBytes", methodType(byte[].class, String.class));
+			return MethodHandles.insertArguments(read, 1, "Mismatched length of component " + component.getName());
+		}
+
+		String name = writerNameOf(component);
+		if (name == null)
+			throw new IllegalArgumentException("Components of type " + type.getName() + " cannot be unmarshalled: " + component);
+
+		return contextMethod(UnmarshallingContext.class, "read" + name.substring("write".length()), methodType(type));
+	}
+
+	/**
+	 * Checks that the annotations of the given component are used on components of the right type.
+	 */
+	private static void check(RecordComponent component) {
+		Class<?> type = component.getType();
+
+		if (component.isAnnotationPresent(Compact.class) && type != int.class && type != long.class)
+			throw new IllegalArgumentException("Only int and long components can be annotated as @Compact: " + component);
+
+		if (component.isAnnotationPresent(Shared.class) && type != String.class)
+			throw new IllegalArgumentException("Only String components can be annotated as @Shared: " + component);
+	}
+
+	/**
+	 * Yields the name of the method of the marshalling contexts that writes the given component.
+	 * The name of the method of the unmarshalling contexts that reads it back is derived from it.
+	 * 
+	 * @param component the component
+	 * @return the name of the method, or {@code null} if the component cannot be marshalled
+	 */
+	private static String writerNameOf(RecordComponent component) {
+		Class<?> type = component.getType();
+		boolean compact = component.isAnnotationPresent(Compact.class);
+
+		if (type == boolean.class) return "writeBoolean";
+		else if (type == byte.class) return "writeByte";
+		else if (type == char.class) return "writeChar";
+		else if (type == short.class) return "writeShort";
+		else if (type == int.class) return compact ? "writeCompactInt" : "writeInt";
+		else if (type == long.class) return compact ? "writeCompactLong" : "writeLong";
+		else if (type == float.class) return "writeFloat";
+		else if (type == double.class) return "writeDouble";
+		else if (type == byte[].class) return "writeLengthAndBytes";
+		else if (type == short[].class) return "writeShortArray";
+		else if (type == int[].class) return "writeIntArray";
+		else if (type == long[].class) return "writeLongArray";
+		else if (type == double[].class) return "writeDoubleArray";
+		else if (type == String.class) return component.isAnnotationPresent(Shared.class) ? "writeStringShared" : "writeStringUnshared";
+		else if (type == BigInteger.class) return "writeBigInteger";
+		else return null;
+	}
+
+	private MethodHandle accessorOf(RecordComponent component) {
+		try {
+			return lookup.unreflect(component.getAccessor());
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Cannot access component " + component, e);
+		}
+	}
+
+	private MethodHandle constructorOf(Class<?> record, Class<?>[] types) {
+		try {
+			return lookup.findConstructor(record, methodType(void.class, types));
+		}
+		catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalArgumentException("Cannot access the canonical constructor of " + record.getName(), e);
+		}
+	}
+
+	private static MethodHandle contextMethod(Class<?> context, String name, MethodType type) {
+		try {
+			return CONTEXTS.findVirtual(context, name, type);
+		}
+		catch (NoSuchMethodException | IllegalAccessException e) {
+			// impossible, the contexts have a public method for each supported type
+			throw new IllegalStateException("Unexpected exception", e);
+		}
+	}
+}
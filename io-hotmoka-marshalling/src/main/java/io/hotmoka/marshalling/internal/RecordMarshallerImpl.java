@@ -0,0 +1,52 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+
+import io.hotmoka.marshalling.api.MarshallingContext;
+
+/**
+ * An object marshaller of records, that marshals their components in order,
+ * through a codec built at run time.
+ * 
+ * @param <R> the type of the class of the marshalled records
+ */
+public class RecordMarshallerImpl<R extends Record> extends ObjectMarshallerImpl<R> {
+
+	/**
+	 * The codec that performs the marshalling.
+	 */
+	private final RecordCodec codec;
+
+	/**
+	 * Creates the object marshaller.
+	 * 
+	 * @param clazz the class of the marshalled records
+	 * @param codec the codec for the records of {@code clazz}
+	 */
+	public RecordMarshallerImpl(Class<R> clazz, RecordCodec codec) {
+		super(clazz);
+
+		this.codec = codec;
+	}
+
+	@Override
+	public void write(R value, MarshallingContext context) throws IOException {
+		codec.write(value, context);
+	}
+}
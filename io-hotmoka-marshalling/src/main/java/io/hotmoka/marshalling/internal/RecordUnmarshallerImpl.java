@@ -0,0 +1,54 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.IOException;
+
+import io.hotmoka.marshalling.api.UnmarshallingContext;
+
+/**
+ * An object unmarshaller of records, that unmarshals their components in order
+ * and passes them to their canonical constructor, through a codec built at run time.
+ * 
+ * @param <R> the type of the class of the unmarshalled records
+ */
+public class RecordUnmarshallerImpl<R extends Record> extends ObjectUnmarshallerImpl<R> {
+
+	/**
+	 * The codec that performs the unmarshalling.
+	 */
+	private final RecordCodec codec;
+
+	/**
+	 * Creates the object unmarshaller.
+	 * 
+	 * @param clazz the class of the unmarshalled records
+	 * @param codec the codec for the records of {@code clazz}
+	 */
+	public RecordUnmarshallerImpl(Class<R> clazz, RecordCodec codec) {
+		super(clazz);
+
+		this.codec = codec;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public R read(UnmarshallingContext context) throws IOException {
+		// the codec builds records of the class of this unmarshaller
+		return (R) codec.read(context);
+	}
+}
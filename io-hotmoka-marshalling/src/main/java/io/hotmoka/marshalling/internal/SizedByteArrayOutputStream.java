@@ -0,0 +1,46 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * A byte array output stream with a given initial capacity, whose
+ * {@link #toByteArray()} avoids copying the bytes if they fill exactly
+ * the internal buffer. It is meant to be discarded after {@link #toByteArray()}.
+ */
+final class SizedByteArrayOutputStream extends ByteArrayOutputStream {
+
+	/**
+	 * Creates the stream.
+	 * 
+	 * @param size the initial capacity of the stream
+	 */
+	SizedByteArrayOutputStream(int size) {
+		super(size);
+	}
+
+	/**
+	 * Yields the bytes written into this stream. This is the internal buffer
+	 * of this stream if the bytes fill it exactly. Otherwise, it is a trimmed copy of the buffer.
+	 */
+	@Override
+	public synchronized byte[] toByteArray() {
+		return count == buf.length ? buf : Arrays.copyOf(buf, count);
+	}
+}
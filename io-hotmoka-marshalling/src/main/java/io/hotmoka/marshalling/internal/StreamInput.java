@@ -0,0 +1,173 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import io.hotmoka.marshalling.api.StringCache;
+
+/**
+ * An input that reads from an input stream, through a buffer.
+ */
+final class StreamInput extends Input {
+	private final DataInputStream dis;
+
+	/**
+	 * The size of {@link #scratch} when it is used at its largest.
+	 * Longer encodings of strings are read into a fresh array, so that a single long string
+	 * does not keep a large scratch array alive, and arrays of primitive values are read
+	 * in chunks of this size.
+	 */
+	private final static int MAX_SCRATCH_LENGTH = 8192;
+
+	/**
+	 * A reusable array where strings and arrays of primitive values are read before decoding.
+	 */
+	private byte[] scratch = new byte[64];
+
+	/**
+	 * Creates an input that reads from the given input stream.
+	 * 
+	 * @param is the input stream
+	 */
+	StreamInput(InputStream is) {
+		this.dis = new DataInputStream(new BufferedInputStream(is));
+	}
+
+	@Override
+	int available() throws IOException {
+		return dis.available();
+	}
+
+	@Override
+	byte readByte() throws IOException {
+		return dis.readByte();
+	}
+
+	@Override
+	short readShort() throws IOException {
+		return dis.readShort();
+	}
+
+	@Override
+	char readChar() throws IOException {
+		return dis.readChar();
+	}
+
+	@Override
+	int readInt() throws IOException {
+		return dis.readInt();
+	}
+
+	@Override
+	long readLong() throws IOException {
+		return dis.readLong();
+	}
+
+	@Override
+	float readFloat() throws IOException {
+		return dis.readFloat();
+	}
+
+	@Override
+	double readDouble() throws IOException {
+		return dis.readDouble();
+	}
+
+	@Override
+	boolean readBoolean() throws IOException {
+		return dis.readBoolean();
+	}
+
+	@Override
+	byte[] readBytes(int length, String mismatchErrorMessage) throws IOException {
+		if (length < 0)
+			throw new IOException(mismatchErrorMessage);
+
+		var bytes = new byte[length];
+		if (length != dis.read(bytes))
+			throw new IOException(mismatchErrorMessage);
+
+		return bytes;
+	}
+
+	@Override
+	String readUTF8(int length, StringCache cache) throws IOException {
+		if (length < 0)
+			throw new IOException("String length mismatch");
+
+		byte[] bytes = length <= MAX_SCRATCH_LENGTH ? scratch(length) : new byte[length];
+
+		if (dis.readNBytes(bytes, 0, length) != length)
+			throw new IOException("String length mismatch");
+
+		return decodeUTF8(bytes, 0, length, cache);
+	}
+
+	@Override
+	void readBulk(int count, int elementSize, BulkTransfer get) throws IOException {
+		int maxChunk = MAX_SCRATCH_LENGTH / elementSize;
+
+		for (int offset = 0, chunk; offset < count; offset += chunk) {
+			chunk = Math.min(count - offset, maxChunk);
+			int length = chunk * elementSize;
+			byte[] bytes = scratch(length);
+			if (dis.readNBytes(bytes, 0, length) != length)
+				throw new EOFException();
+
+			get.transfer(ByteBuffer.wrap(bytes, 0, length), offset, chunk);
+		}
+	}
+
+	/**
+	 * Yields {@link #scratch}, enlarged if needed.
+	 * 
+	 * @param length the minimal length of the scratch array, at most {@link #MAX_SCRATCH_LENGTH}
+	 * @return the scratch array
+	 */
+	private byte[] scratch(int length) {
+		if (length > scratch.length)
+			scratch = new byte[Math.min(MAX_SCRATCH_LENGTH, Math.max(length, scratch.length << 1))];
+
+		return scratch;
+	}
+
+	@Override
+	int readNBytes(byte[] b, int off, int len) throws IOException {
+		return dis.readNBytes(b, off, len);
+	}
+
+	@Override
+	void skip(int n) throws IOException {
+		dis.skipNBytes(n);
+	}
+
+	@Override
+	byte[] readAllBytes() throws IOException {
+		return dis.readAllBytes();
+	}
+
+	@Override
+	void close() throws IOException {
+		dis.close();
+	}
+}
@@ -0,0 +1,105 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output that writes into an output stream.
+ */
+final class StreamOutput extends Output {
+	private final DataOutputStream dos;
+
+	/**
+	 * A reusable array where variable-length integers are encoded before being written.
+	 */
+	private final byte[] varint = new byte[Varints.MAX_LENGTH];
+
+	/**
+	 * Creates an output that writes into the given output stream.
+	 * 
+	 * @param os the output stream
+	 */
+	StreamOutput(OutputStream os) {
+		this.dos = new DataOutputStream(os);
+	}
+
+	@Override
+	void writeByte(int b) throws IOException {
+		dos.writeByte(b);
+	}
+
+	@Override
+	void writeShort(int s) throws IOException {
+		dos.writeShort(s);
+	}
+
+	@Override
+	void writeChar(int c) throws IOException {
+		dos.writeChar(c);
+	}
+
+	@Override
+	void writeInt(int i) throws IOException {
+		dos.writeInt(i);
+	}
+
+	@Override
+	void writeLong(long l) throws IOException {
+		dos.writeLong(l);
+	}
+
+	@Override
+	void writeFloat(float f) throws IOException {
+		dos.writeFloat(f);
+	}
+
+	@Override
+	void writeDouble(double d) throws IOException {
+		dos.writeDouble(d);
+	}
+
+	@Override
+	void writeBoolean(boolean b) throws IOException {
+		dos.writeBoolean(b);
+	}
+
+	@Override
+	void write(byte[] bytes, int off, int len) throws IOException {
+		dos.write(bytes, off, len);
+	}
+
+	@Override
+	void writeVarLong(long value) throws IOException {
+		if ((value & ~0x7FL) == 0L)
+			dos.write((int) value);
+		else
+			dos.write(varint, 0, Varints.encode(value, varint, 0));
+	}
+
+	@Override
+	void flush() throws IOException {
+		dos.flush();
+	}
+
+	@Override
+	void close() throws IOException {
+		dos.close();
+	}
+}
@@ -0,0 +1,166 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.hotmoka.marshalling.api.StringCache;
+
+/**
+ * Implementation of a bounded cache of strings, that can be shared among unmarshalling contexts.
+ * Strings are looked up through their UTF-8 encoding, hence before being created.
+ * The cache is a set-associative table: each string can only live in a small set of slots,
+ * determined by the hash of its encoding, and a clock policy chooses which slot of the set to evict.
+ * The cache is thread-safe without locks: entries are immutable and races among threads
+ * can only cause some spurious misses or evictions.
+ */
+public class StringCacheImpl implements StringCache {
+
+	/**
+	 * The number of slots of each set. It must be a power of two.
+	 */
+	private final static int WAYS = 4;
+
+	/**
+	 * An entry of the cache.
+	 * 
+	 * @param utf8 the UTF-8 encoding of {@code string}
+	 * @param string the string
+	 * @param hash the hash of {@code utf8}
+	 */
+	private record Entry(byte[] utf8, String string, int hash) {}
+
+	/**
+	 * The slots of the cache, possibly null.
+	 */
+	private final Entry[] entries;
+
+	/**
+	 * The clock bit of the entry in the same slot of {@link #entries}: it is set
+	 * when the entry is found in the cache and cleared when the entry is spared from eviction.
+	 */
+	private final boolean[] referenced;
+
+	/**
+	 * The longest encoding of the strings that get cached.
+	 */
+	private final int maxLength;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Creates a cache of strings.
+	 * 
+	 * @param capacity the maximal number of strings kept in the cache; this is rounded
+	 *                 up to a power of two
+	 * @param maxLength the maximal length of the UTF-8 encoding of the strings kept
+	 *                  in the cache; longer strings are never cached, since they are unlikely
+	 *                  to be repeated
+	 * @throws IllegalArgumentException if {@code capacity} is not positive or larger than {@code 2^30},
+	 *                                  or if {@code maxLength} is negative
+	 */
+	public StringCacheImpl(int capacity, int maxLength) {
+		if (capacity <= 0 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Illegal capacity " + capacity);
+
+		if (maxLength < 0)
+			throw new IllegalArgumentException("maxLength cannot be negative");
+
+		int slots = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+		this.entries = new Entry[slots];
+		this.referenced = new boolean[slots];
+		this.maxLength = maxLength;
+	}
+
+	@Override
+	public String decode(byte[] bytes, int offset, int length) {
+		if (length > maxLength)
+			return new String(bytes, offset, length, StandardCharsets.UTF_8);
+
+		int hash = hash(bytes, offset, length);
+		int set = hash & (entries.length - WAYS);
+
+		for (int slot = set; slot < set + WAYS; slot++) {
+			Entry entry = entries[slot];
+			if (entry != null && entry.hash == hash && Arrays.equals(entry.utf8, 0, entry.utf8.length, bytes, offset, offset + length)) {
+				if (!referenced[slot])
+					referenced[slot] = true;
+
+				hits.increment();
+				return entry.string;
+			}
+		}
+
+		misses.increment();
+		var string = new String(bytes, offset, length, StandardCharsets.UTF_8);
+		entries[victim(set)] = new Entry(Arrays.copyOfRange(bytes, offset, offset + length), string, hash);
+
+		return string;
+	}
+
+	/**
+	 * Chooses the slot of the given set that gets replaced with a new entry.
+	 * This is an empty slot, if any, or otherwise the first slot not recently referenced,
+	 * according to a clock that sweeps the set and clears the clock bits of the slots it spares.
+	 * 
+	 * @param set the first slot of the set
+	 * @return the chosen slot
+	 */
+	private int victim(int set) {
+		for (int slot = set; slot < set + WAYS; slot++)
+			if (entries[slot] == null)
+				return slot;
+
+		for (int slot = set; slot < set + WAYS; slot++) {
+			if (!referenced[slot])
+				return slot;
+
+			referenced[slot] = false;
+		}
+
+		// all slots were referenced: their clock bits are now clear
+		return set;
+	}
+
+	private static int hash(byte[] bytes, int offset, int length) {
+		int h = 1;
+		for (int pos = offset; pos < offset + length; pos++)
+			h = 31 * h + bytes[pos];
+
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	@Override
+	public long hits() {
+		return hits.sum();
+	}
+
+	@Override
+	public long misses() {
+		return misses.sum();
+	}
+
+	@Override
+	public double hitRate() {
+		long h = hits(), total = h + misses();
+		return total == 0L ? 0.0 : (double) h / total;
+	}
+}
@@ -0,0 +1,151 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+/**
+ * A map from strings to their progressive index, in order of insertion.
+ * It uses open addressing with linear probing on parallel arrays,
+ * hence it does not allocate any entry object nor any boxed integer.
+ * The arrays are allocated only when the first string is added.
+ */
+final class StringIndexMap {
+
+	/**
+	 * The initial number of slots of the table. It must be a power of two.
+	 */
+	private final static int INITIAL_CAPACITY = 32;
+
+	/**
+	 * The strings in the table, or null for empty slots.
+	 */
+	private String[] keys;
+
+	/**
+	 * The index of the string in the same slot of {@link #keys}.
+	 */
+	private int[] indices;
+
+	/**
+	 * The number of strings in the table.
+	 */
+	private int size;
+
+	/**
+	 * Yields the number of strings in this map.
+	 * 
+	 * @return the number of strings
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Yields the index of the given string, if it is in this map.
+	 * This method does not modify this map, hence it can be called
+	 * concurrently, as long as no string gets added.
+	 * 
+	 * @param s the string
+	 * @return the index of {@code s}, or -1 if it is not in this map
+	 */
+	int indexOf(String s) {
+		if (keys != null) {
+			int mask = keys.length - 1;
+			int slot = hash(s) & mask;
+			for (String key; (key = keys[slot]) != null; slot = (slot + 1) & mask)
+				if (key.equals(s))
+					return indices[slot];
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Yields the strings in this map, in order of insertion.
+	 * 
+	 * @return the strings, each at the position of its index
+	 */
+	String[] toArray() {
+		var result = new String[size];
+		if (keys != null)
+			for (int slot = 0; slot < keys.length; slot++)
+				if (keys[slot] != null)
+					result[indices[slot]] = keys[slot];
+
+		return result;
+	}
+
+	/**
+	 * Yields the index of the given string, if it is in this map. Otherwise,
+	 * adds the string to this map, with index equal to the number of strings
+	 * already in this map.
+	 * 
+	 * @param s the string
+	 * @return the index of {@code s} if it was already in this map, otherwise -1
+	 */
+	int indexOrAdd(String s) {
+		if (keys == null) {
+			keys = new String[INITIAL_CAPACITY];
+			indices = new int[INITIAL_CAPACITY];
+		}
+
+		int mask = keys.length - 1;
+		int slot = hash(s) & mask;
+		for (String key; (key = keys[slot]) != null; slot = (slot + 1) & mask)
+			if (key.equals(s))
+				return indices[slot];
+
+		keys[slot] = s;
+		indices[slot] = size++;
+
+		// the table is kept at most half full, so that probe sequences remain short
+		if (size > keys.length >> 1)
+			rehash();
+
+		return -1;
+	}
+
+	private void rehash() {
+		String[] oldKeys = keys;
+		int[] oldIndices = indices;
+		keys = new String[oldKeys.length << 1];
+		indices = new int[keys.length];
+		int mask = keys.length - 1;
+
+		for (int pos = 0; pos < oldKeys.length; pos++) {
+			String key = oldKeys[pos];
+			if (key != null) {
+				int slot = hash(key) & mask;
+				while (keys[slot] != null)
+					slot = (slot + 1) & mask;
+
+				keys[slot] = key;
+				indices[slot] = oldIndices[pos];
+			}
+		}
+	}
+
+	/**
+	 * Spreads the hash code of the given string, since the table uses its lowest bits only.
+	 * 
+	 * @param s the string
+	 * @return the spread hash code
+	 */
+	private static int hash(String s) {
+		int h = s.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -16,19 +16,28 @@ limitations under the License.
 
 package io.hotmoka.marshalling.internal;
 
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import io.hotmoka.marshalling.api.IndexedArray;
 import io.hotmoka.marshalling.api.Marshallable;
+import io.hotmoka.marshalling.api.MarshallerRegistry;
+import io.hotmoka.marshalling.api.MarshallingFormat;
 import io.hotmoka.marshalling.api.ObjectUnmarshaller;
+import io.hotmoka.marshalling.api.Skipper;
+import io.hotmoka.marshalling.api.StringCache;
 import io.hotmoka.marshalling.api.Unmarshaller;
 import io.hotmoka.marshalling.api.UnmarshallingContext;
 
@@ -36,17 +45,69 @@ import io.hotmoka.marshalling.api.UnmarshallingContext;
  * Implementation of a context used during bytes unmarshalling into objects.
  */
 public class UnmarshallingContextImpl implements UnmarshallingContext {
-	private final DataInputStream dis;
+
+	/**
+	 * The initial, empty memory of strings, shared by all contexts.
+	 */
+	private final static String[] NO_STRINGS = new String[0];
+
+	/**
+	 * The smallest big integer in {@link #SMALL_BIG_INTEGERS}.
+	 */
+	private final static int MIN_SMALL_BIG_INTEGER = -128;
+
+	/**
+	 * The largest big integer in {@link #SMALL_BIG_INTEGERS}. This is the largest value
+	 * that gets inlined in the selector of a marshalled big integer.
+	 */
+	private final static int MAX_SMALL_BIG_INTEGER = 251;
+
+	/**
+	 * Shared instances of the small big integers, that are very frequent, so that
+	 * they are not allocated at each unmarshalling.
+	 */
+	private final static BigInteger[] SMALL_BIG_INTEGERS = new BigInteger[MAX_SMALL_BIG_INTEGER - MIN_SMALL_BIG_INTEGER + 1];
+
+	static {
+		for (int value = MIN_SMALL_BIG_INTEGER; value <= MAX_SMALL_BIG_INTEGER; value++)
+			SMALL_BIG_INTEGERS[value - MIN_SMALL_BIG_INTEGER] = BigInteger.valueOf(value);
+	}
+
+	/**
+	 * The source of the unmarshalled bytes.
+	 */
+	private final Input in;
 
 	/**
 	 * A memory to avoid duplicated strings in the marshalled bytes.
 	 */
-	private final Map<Integer, String> memoryString = new HashMap<>();
+	private String[] memoryString = NO_STRINGS;
 
 	/**
-	 * Object marshallers for specific classes, if any.
+	 * The number of strings in {@link #memoryString}. Their index is their position in that array.
 	 */
-	private final Map<Class<?>, ObjectUnmarshaller<?>> objectUnmarshallers = new HashMap<>();
+	private int memoryStringSize;
+
+	/**
+	 * The format of the marshalled bytes.
+	 */
+	private MarshallingFormat format = MarshallingFormat.V1;
+
+	/**
+	 * The cache used to decode strings, if any.
+	 */
+	private StringCache stringCache;
+
+	/**
+	 * The registry of the object unmarshallers for specific classes.
+	 */
+	private MarshallerRegistry registry = MarshallerRegistryImpl.EMPTY;
+
+	/**
+	 * The object unmarshallers registered through {@link #registerObjectUnmarshaller(ObjectUnmarshaller)},
+	 * that take precedence over those in {@link #registry}. This is {@code null} if there are none.
+	 */
+	private Map<Class<?>, ObjectUnmarshaller<?>> registered;
 
 	/**
 	 * Creates an unmarshalling context.
@@ -54,32 +115,150 @@ public class UnmarshallingContextImpl implements UnmarshallingContext {
 	 * @param is the input stream of the context
 	 */
 	public UnmarshallingContextImpl(InputStream is) {
-		this.dis = new DataInputStream(new BufferedInputStream(is));
+		this.in = new StreamInput(is);
+	}
+
+	/**
+	 * Creates an unmarshalling context that reads the given portion of an array of bytes.
+	 * The bytes are read directly from the array, without any intermediate buffer.
+	 * 
+	 * @param bytes the array of bytes
+	 * @param offset the offset of the first byte to read
+	 * @param length the number of bytes that can be read
+	 * @throws IndexOutOfBoundsException if {@code offset} and {@code length} do not
+	 *                                   identify a portion of {@code bytes}
+	 */
+	public UnmarshallingContextImpl(byte[] bytes, int offset, int length) {
+		this(ByteBuffer.wrap(bytes, offset, length));
+	}
+
+	/**
+	 * Creates an unmarshalling context that reads the given buffer, from its current position
+	 * up to its limit, and advances that position. The byte order of the buffer gets set to big-endian.
+	 * The bytes are read directly from the buffer, without any intermediate buffer.
+	 * 
+	 * @param buffer the buffer
+	 */
+	public UnmarshallingContextImpl(ByteBuffer buffer) {
+		this(new ByteBufferInput(buffer));
+	}
+
+	/**
+	 * Creates an unmarshalling context that reads from the given input.
+	 * 
+	 * @param in the input
+	 */
+	UnmarshallingContextImpl(Input in) {
+		this.in = in;
+	}
+
+	/**
+	 * Creates an unmarshalling context that reads from the given input, with the same
+	 * format, string cache and registry of object unmarshallers as the given parent context.
+	 * It is used to unmarshal the elements of an indexed array.
+	 * 
+	 * @param in the input
+	 * @param parent the parent context
+	 */
+	UnmarshallingContextImpl(Input in, UnmarshallingContextImpl parent) {
+		this.in = in;
+		this.format = parent.format;
+		this.stringCache = parent.stringCache;
+		this.registry = parent.registry;
+		this.registered = parent.registered;
 	}
 
 	/**
 	 * Registers an object unmarshaller. It will be used to unmarshall its class.
+	 * It takes precedence over the unmarshaller for the same class in the registry of this context.
+	 * Subclasses whose contexts are created often should rather build a registry once
+	 * and use it through {@link #setMarshallerRegistry(MarshallerRegistry)}.
 	 * 
 	 * @param ou the object unmarshaller
 	 */
 	protected void registerObjectUnmarshaller(ObjectUnmarshaller<?> ou) {
-		objectUnmarshallers.put(ou.clazz(), ou);
+		if (registered == null)
+			registered = new HashMap<>();
+
+		registered.put(Objects.requireNonNull(ou.clazz()), ou);
+	}
+
+	/**
+	 * Yields the object unmarshaller for the given class.
+	 * 
+	 * @param <C> the type of the class
+	 * @param clazz the class
+	 * @return the object unmarshaller, or {@code null} if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	private <C> ObjectUnmarshaller<C> unmarshallerOf(Class<C> clazz) {
+		if (registered != null) {
+			var ou = (ObjectUnmarshaller<C>) registered.get(clazz);
+			if (ou != null)
+				return ou;
+		}
+
+		return registry.getUnmarshaller(clazz);
+	}
+
+	@Override
+	public void setMarshallerRegistry(MarshallerRegistry registry) {
+		this.registry = Objects.requireNonNull(registry);
+	}
+
+	@Override
+	public void setFormat(MarshallingFormat format) {
+		this.format = Objects.requireNonNull(format);
+	}
+
+	@Override
+	public MarshallingFormat getFormat() {
+		return format;
+	}
+
+	@Override
+	public void setStringCache(StringCache cache) {
+		this.stringCache = cache;
 	}
 
 	@Override
 	public int available() throws IOException {
-		return dis.available();
+		return in.available();
 	}
 
 	@Override
 	public <C> C readObject(Class<C> clazz) throws IOException {
-		@SuppressWarnings("unchecked")
-		var ou = (ObjectUnmarshaller<C>) objectUnmarshallers.get(clazz);
-		Objects.requireNonNull(ou, "Missing object unmarshaller for class " + clazz.getName());
+		var ou = unmarshallerOf(clazz);
+		if (ou == null) // the message is only built if needed
+			throw new NullPointerException("Missing object unmarshaller for class " + clazz.getName());
 
 		return ou.read(this);
 	}
 
+	@Override
+	public <C> C readTaggedObject(Class<C> supertype) throws IOException {
+		int tag = readCompactInt();
+		ObjectUnmarshaller<?> ou;
+		if (registered == null)
+			ou = registry.getUnmarshaller(tag);
+		else {
+			// the object unmarshallers registered in this context take precedence, as for readObject()
+			var clazz = registry.getTaggedClass(tag);
+			ou = clazz == null ? null : unmarshallerOf(clazz);
+		}
+
+		if (ou == null)
+			throw new IOException("Missing object unmarshaller for type tag " + tag);
+
+		Object result = ou.read(this);
+		if (!supertype.isInstance(result))
+			throw new IOException("The object with type tag " + tag + " is not a " + supertype.getName());
+
+		@SuppressWarnings("unchecked")
+		var c = (C) result;
+		return c;
+	}
+
 	@Override
 	public <T extends Marshallable> T[] readLengthAndArray(Unmarshaller<T> unmarshaller, Function<Integer,T[]> supplier) throws IOException {
 		int length = readCompactInt();
@@ -90,33 +269,226 @@ public class UnmarshallingContextImpl implements UnmarshallingContext {
 		return result;
 	}
 
+	@Override
+	public <T extends Marshallable> Stream<T> readLengthAndStream(Unmarshaller<T> unmarshaller, Skipper skipper) throws IOException {
+		var spliterator = new LazyArraySpliterator<>(readArrayLength(), unmarshaller);
+		return StreamSupport.stream(spliterator, false).onClose(() -> spliterator.skipRest(skipper));
+	}
+
+	/**
+	 * A spliterator that unmarshals the elements of an array on demand.
+	 * It cannot be split, since elements must be unmarshalled in order.
+	 * 
+	 * @param <T> the type of the elements
+	 */
+	private class LazyArraySpliterator<T extends Marshallable> implements Spliterator<T> {
+		private final Unmarshaller<T> unmarshaller;
+
+		/**
+		 * The number of elements not yet unmarshalled or skipped.
+		 */
+		private int remaining;
+
+		/**
+		 * True if and only if an element could not be unmarshalled or skipped;
+		 * in that case, the position of the context is unknown.
+		 */
+		private boolean failed;
+
+		private LazyArraySpliterator(int length, Unmarshaller<T> unmarshaller) {
+			this.remaining = length;
+			this.unmarshaller = unmarshaller;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (remaining == 0 || failed)
+				return false;
+
+			T element;
+			failed = true; // until the element is unmarshalled, whatever the unmarshaller throws
+
+			try {
+				element = unmarshaller.from(UnmarshallingContextImpl.this);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			failed = false;
+			remaining--;
+			action.accept(element);
+			return true;
+		}
+
+		/**
+		 * Skips the elements not yet unmarshalled.
+		 * 
+		 * @param skipper the object that skips a single element
+		 * @throws UncheckedIOException if some element cannot be skipped
+		 */
+		private void skipRest(Skipper skipper) {
+			if (remaining == 0 || failed)
+				return;
+
+			failed = true; // until all elements are skipped, whatever the skipper throws
+
+			try {
+				for (; remaining > 0; remaining--)
+					skipper.skip(UnmarshallingContextImpl.this);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			failed = false;
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return remaining;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | NONNULL;
+		}
+	}
+
+	@Override
+	public IndexedArray readIndexedArray() throws IOException {
+		int length = readArrayLength();
+		int width = readOffsetWidth();
+		var ends = new int[length];
+		int previous = 0;
+
+		for (int pos = 0; pos < length; pos++) {
+			int end = readOffset(width);
+			if (end < previous)
+				throw new IOException("Decreasing offset in indexed array");
+
+			ends[pos] = previous = end;
+		}
+
+		return new IndexedArrayImpl(this, ends, in.readSlice(previous, "Indexed array length mismatch"));
+	}
+
+	/**
+	 * Reads the number of bytes used for the offsets of an indexed array.
+	 * 
+	 * @return the number of bytes: 1, 2 or 4
+	 * @throws IOException if an I/O error occurs or if the number of bytes is not 1, 2 or 4
+	 */
+	private int readOffsetWidth() throws IOException {
+		int width = in.readByte();
+		if (width != 1 && width != 2 && width != 4)
+			throw new IOException("Illegal offset width " + width + " in indexed array");
+
+		return width;
+	}
+
+	/**
+	 * Reads an offset of an indexed array.
+	 * 
+	 * @param width the number of bytes of the offset: 1, 2 or 4
+	 * @return the offset
+	 * @throws IOException if an I/O error occurs or if the offset is negative
+	 */
+	private int readOffset(int width) throws IOException {
+		int offset = width == 1 ? in.readByte() & 0xFF : width == 2 ? in.readShort() & 0xFFFF : in.readInt();
+		if (offset < 0)
+			throw new IOException("Negative offset in indexed array");
+
+		return offset;
+	}
+
+	@Override
+	public long[] readLongArray() throws IOException {
+		var values = new long[readArrayLength()];
+		in.readBulk(values.length, Long.BYTES, (buffer, offset, count) -> buffer.asLongBuffer().get(values, offset, count));
+		return values;
+	}
+
+	@Override
+	public int[] readIntArray() throws IOException {
+		var values = new int[readArrayLength()];
+		in.readBulk(values.length, Integer.BYTES, (buffer, offset, count) -> buffer.asIntBuffer().get(values, offset, count));
+		return values;
+	}
+
+	@Override
+	public short[] readShortArray() throws IOException {
+		var values = new short[readArrayLength()];
+		in.readBulk(values.length, Short.BYTES, (buffer, offset, count) -> buffer.asShortBuffer().get(values, offset, count));
+		return values;
+	}
+
+	@Override
+	public double[] readDoubleArray() throws IOException {
+		var values = new double[readArrayLength()];
+		in.readBulk(values.length, Double.BYTES, (buffer, offset, count) -> buffer.asDoubleBuffer().get(values, offset, count));
+		return values;
+	}
+
+	/**
+	 * Reads the length of an array of primitive values.
+	 * 
+	 * @return the length
+	 * @throws IOException if an I/O error occurs or if the length is negative
+	 */
+	private int readArrayLength() throws IOException {
+		int length = readCompactInt();
+		if (length < 0)
+			throw new IOException("Negative array length " + length);
+
+		return length;
+	}
+
 	@Override
 	public byte[] readLengthAndBytes(String mismatchErrorMessage) throws IOException {
 		return readBytes(readCompactInt(), mismatchErrorMessage);
 	}
 
+	@Override
+	public ByteBuffer readLengthAndSlice(String mismatchErrorMessage) throws IOException {
+		return in.readSlice(readCompactInt(), mismatchErrorMessage);
+	}
+
 	@Override
 	public byte readByte() throws IOException {
-		return dis.readByte();
+		return in.readByte();
 	}
 
 	@Override
 	public char readChar() throws IOException {
-		return dis.readChar();
+		return in.readChar();
 	}
 
 	@Override
 	public boolean readBoolean() throws IOException {
-		return dis.readBoolean();
+		return in.readBoolean();
 	}
 
 	@Override
 	public int readInt() throws IOException {
-		return dis.readInt();
+		return in.readInt();
 	}
 
 	@Override
 	public int readCompactInt() throws IOException {
+		if (format == MarshallingFormat.V3) {
+			long l = in.readVarLong();
+			if ((l >>> Integer.SIZE) != 0L)
+				throw new IOException("Compact integer out of range");
+
+			return (int) l;
+		}
+
 		int i = readByte();
 		if (i < 0)
 			i += 256;
@@ -130,16 +502,19 @@ public class UnmarshallingContextImpl implements UnmarshallingContext {
 
 	@Override
 	public short readShort() throws IOException {
-		return dis.readShort();
+		return in.readShort();
 	}
 
 	@Override
 	public long readLong() throws IOException {
-		return dis.readLong();
+		return in.readLong();
 	}
 
 	@Override
 	public long readCompactLong() throws IOException {
+		if (format == MarshallingFormat.V3)
+			return Varints.unZigZag(in.readVarLong());
+
 		int i = readByte();
 		if (i < 0)
 			i += 256;
@@ -154,17 +529,17 @@ public class UnmarshallingContextImpl implements UnmarshallingContext {
 
 	@Override
 	public float readFloat() throws IOException {
-		return dis.readFloat();
+		return in.readFloat();
 	}
 
 	@Override
 	public double readDouble() throws IOException {
-		return dis.readDouble();
+		return in.readDouble();
 	}
 
 	@Override
 	public String readStringUnshared() throws IOException {
-		return new String(readLengthAndBytes("String length mismatch"), StandardCharsets.UTF_8);
+		return in.readUTF8(readCompactInt(), stringCache);
 	}
 
 	@Override
@@ -174,57 +549,208 @@ public class UnmarshallingContextImpl implements UnmarshallingContext {
 			selector = 256 + selector;
 	
 		if (selector == 254)
-			return memoryString.get(readInt());
+			return sharedString(readInt());
 		else if (selector == 255) {
-			String s = new String(readLengthAndBytes("String length mismatch"), StandardCharsets.UTF_8);
-			memoryString.put(memoryString.size(), s);
+			String s = in.readUTF8(readCompactInt(), stringCache);
+			addSharedString(s);
 			return s;
 		}
 		else
-			return memoryString.get(selector);
+			return sharedString(selector);
+	}
+
+	/**
+	 * Adds a string to the memory of the strings read through {@link #readStringShared()}.
+	 * 
+	 * @param s the string
+	 */
+	private void addSharedString(String s) {
+		if (memoryStringSize == memoryString.length)
+			memoryString = Arrays.copyOf(memoryString, Math.max(16, memoryStringSize << 1));
+
+		memoryString[memoryStringSize++] = s;
+	}
+
+	/**
+	 * Yields the number of strings read so far through {@link #readStringShared()}.
+	 * 
+	 * @return the number of strings
+	 */
+	int sharedStrings() {
+		return memoryStringSize;
+	}
+
+	/**
+	 * Forgets the strings read through {@link #readStringShared()} after the first {@code size} ones.
+	 * It is used to give back the strings of an object whose reading has been abandoned.
+	 * 
+	 * @param size the number of strings that are kept
+	 */
+	void forgetSharedStrings(int size) {
+		Arrays.fill(memoryString, size, memoryStringSize, null);
+		memoryStringSize = size;
+	}
+
+	/**
+	 * Yields a string already read through {@link #readStringShared()}.
+	 * 
+	 * @param index the index of the string, in order of reading
+	 * @return the string
+	 * @throws IOException if no string has been read with the given index
+	 */
+	private String sharedString(int index) throws IOException {
+		if (index < 0 || index >= memoryStringSize)
+			throw new IOException("Unknown shared string #" + index);
+
+		return memoryString[index];
 	}
 
 	@Override
 	public byte[] readBytes(int length, String mismatchErrorMessage) throws IOException {
-		var bytes = new byte[length];
-		if (length != dis.read(bytes))
-			throw new IOException(mismatchErrorMessage);
-
-		return bytes;
+		return in.readBytes(length, mismatchErrorMessage);
 	}
 
 	@Override
 	public byte[] readAllBytes() throws IOException {
-		return dis.readAllBytes();
+		return in.readAllBytes();
 	}
 
 	@Override
 	public int readNBytes(byte[] b, int off, int len) throws IOException {
-		return dis.readNBytes(b, off, len);
+		return in.readNBytes(b, off, len);
 	}
 
 	@Override
 	public BigInteger readBigInteger() throws IOException {
 		byte selector = readByte();
 		switch (selector) {
-		case 0: return BigInteger.valueOf(readShort());
-		case 1: return BigInteger.valueOf(readInt());
-		case 2: return BigInteger.valueOf(readLong());
+		case 0: return bigIntegerOf(readShort());
+		case 1: return bigIntegerOf(readInt());
+		case 2: return bigIntegerOf(readLong());
 		case 3: {
 			int numBytes = readCompactInt();
-			return new BigInteger(new String(readBytes(numBytes, "BigInteger length mismatch")));
+			byte[] bytes = readBytes(numBytes, "BigInteger length mismatch");
+
+			if (format == MarshallingFormat.V1)
+				return new BigInteger(new String(bytes));
+			else if (numBytes == 0)
+				throw new IOException("Empty BigInteger representation");
+			else
+				return new BigInteger(bytes);
 		}
 		default: {
 			if (selector - 4 < 0)
-				return BigInteger.valueOf(selector + 252);
+				return SMALL_BIG_INTEGERS[selector + 252 - MIN_SMALL_BIG_INTEGER];
 			else
-				return BigInteger.valueOf(selector - 4);
+				return SMALL_BIG_INTEGERS[selector - 4 - MIN_SMALL_BIG_INTEGER];
+		}
+		}
+	}
+
+	/**
+	 * Yields the big integer with the given value, shared if it is small.
+	 * 
+	 * @param value the value
+	 * @return the big integer
+	 */
+	private static BigInteger bigIntegerOf(long value) {
+		if (MIN_SMALL_BIG_INTEGER <= value && value <= MAX_SMALL_BIG_INTEGER)
+			return SMALL_BIG_INTEGERS[(int) value - MIN_SMALL_BIG_INTEGER];
+		else
+			return BigInteger.valueOf(value);
+	}
+
+	@Override
+	public void skipCompactInt() throws IOException {
+		if (format == MarshallingFormat.V3)
+			in.readVarLong();
+		else {
+			int selector = readByte();
+			if (selector == (byte) 255)
+				in.skip(4);
+			else if (selector == (byte) 254)
+				in.skip(2);
+		}
+	}
+
+	@Override
+	public void skipCompactLong() throws IOException {
+		if (format == MarshallingFormat.V3)
+			in.readVarLong();
+		else {
+			int selector = readByte();
+			if (selector == (byte) 255)
+				in.skip(8);
+			else if (selector == (byte) 254)
+				in.skip(4);
+			else if (selector == (byte) 253)
+				in.skip(2);
+		}
+	}
+
+	@Override
+	public void skipBigInteger() throws IOException {
+		switch (readByte()) {
+		case 0: in.skip(2); break;
+		case 1: in.skip(4); break;
+		case 2: in.skip(8); break;
+		case 3: skipLengthAndBytes(); break;
+		default: // the value is inlined in the selector
 		}
+	}
+
+	@Override
+	public void skipLengthAndBytes() throws IOException {
+		int length = readCompactInt();
+		if (length < 0)
+			throw new IOException("Negative length " + length);
+
+		in.skip(length);
+	}
+
+	@Override
+	public void skipStringUnshared() throws IOException {
+		skipLengthAndBytes();
+	}
+
+	@Override
+	public void skipStringShared() throws IOException {
+		int selector = readByte();
+		if (selector < 0)
+			selector = 256 + selector;
+
+		if (selector == 254)
+			sharedString(readInt());
+		else if (selector == 255)
+			// later strings might refer to this one, hence it must be kept in memory
+			addSharedString(in.readUTF8(readCompactInt(), stringCache));
+		else
+			sharedString(selector);
+	}
+
+	@Override
+	public void skipLengthAndArray(Skipper skipper) throws IOException {
+		int length = readCompactInt();
+		for (int pos = 0; pos < length; pos++)
+			skipper.skip(this);
+	}
+
+	@Override
+	public void skipIndexedArray() throws IOException {
+		int length = readArrayLength();
+		int width = readOffsetWidth();
+		if (length > 0) {
+			long skipped = (long) (length - 1) * width;
+			if (skipped > Integer.MAX_VALUE)
+				throw new IOException("Indexed array too large");
+
+			in.skip((int) skipped);
+			in.skip(readOffset(width));
 		}
 	}
 
 	@Override
 	public void close() throws IOException {
-		dis.close();
+		in.close();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+/**
+ * Utilities about the UTF-8 encoding of strings, consistent
+ * with {@link String#getBytes(java.nio.charset.Charset)}.
+ */
+final class Utf8 {
+
+	private Utf8() {}
+
+	/**
+	 * Yields the number of bytes of the UTF-8 encoding of the given string,
+	 * without computing that encoding. Unpaired surrogates count as one byte,
+	 * since they are encoded as a replacement question mark.
+	 * 
+	 * @param s the string
+	 * @return the number of bytes
+	 */
+	static int length(String s) {
+		int chars = s.length();
+		int length = chars;
+
+		for (int pos = 0; pos < chars; pos++) {
+			char c = s.charAt(pos);
+			if (c >= 0x80) {
+				if (c < 0x800)
+					length++;
+				else if (Character.isHighSurrogate(c) && pos + 1 < chars && Character.isLowSurrogate(s.charAt(pos + 1))) {
+					// a pair of surrogates is encoded in four bytes
+					length += 2;
+					pos++;
+				}
+				else if (!Character.isSurrogate(c))
+					length += 2;
+			}
+		}
+
+		return length;
+	}
+
+	/**
+	 * Writes the UTF-8 encoding of the given string into an array. Unpaired surrogates
+	 * are encoded as a replacement question mark.
+	 * 
+	 * @param s the string
+	 * @param dest the array, that must have space for {@link #length(String)} bytes
+	 *             from {@code offset} on
+	 * @param offset the position of {@code dest} where the encoding must start
+	 */
+	static void encode(String s, byte[] dest, int offset) {
+		int chars = s.length();
+		int pos = 0;
+
+		// most strings are pure ASCII and are completely copied by this loop
+		for (char c; pos < chars && (c = s.charAt(pos)) < 0x80; pos++)
+			dest[offset++] = (byte) c;
+
+		for (; pos < chars; pos++) {
+			char c = s.charAt(pos);
+			if (c < 0x80)
+				dest[offset++] = (byte) c;
+			else if (c < 0x800) {
+				dest[offset++] = (byte) (0xC0 | (c >> 6));
+				dest[offset++] = (byte) (0x80 | (c & 0x3F));
+			}
+			else if (Character.isHighSurrogate(c) && pos + 1 < chars && Character.isLowSurrogate(s.charAt(pos + 1))) {
+				int cp = Character.toCodePoint(c, s.charAt(++pos));
+				dest[offset++] = (byte) (0xF0 | (cp >> 18));
+				dest[offset++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+				dest[offset++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+				dest[offset++] = (byte) (0x80 | (cp & 0x3F));
+			}
+			else if (Character.isSurrogate(c))
+				dest[offset++] = '?';
+			else {
+				dest[offset++] = (byte) (0xE0 | (c >> 12));
+				dest[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				dest[offset++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+	}
+}
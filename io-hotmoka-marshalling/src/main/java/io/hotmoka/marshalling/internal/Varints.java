@@ -0,0 +1,91 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.marshalling.internal;
+
+/**
+ * Utilities about LEB128 variable-length integers: seven bits per byte, least significant
+ * group first, with the most significant bit of each byte set if and only if more bytes follow.
+ */
+final class Varints {
+
+	private Varints() {}
+
+	/**
+	 * The maximal number of bytes of a variable-length long.
+	 */
+	final static int MAX_LENGTH = 10;
+
+	/**
+	 * The number of bytes of the variable-length encoding of a long,
+	 * indexed by the number of leading zeros of the long.
+	 */
+	private final static byte[] LENGTHS = new byte[Long.SIZE + 1];
+
+	static {
+		for (int zeros = 0; zeros <= Long.SIZE; zeros++)
+			LENGTHS[zeros] = (byte) Math.max(1, (Long.SIZE - zeros + 6) / 7);
+	}
+
+	/**
+	 * Yields the number of bytes of the variable-length encoding of the given value.
+	 * 
+	 * @param value the value, considered as unsigned
+	 * @return the number of bytes, between 1 and {@link #MAX_LENGTH}
+	 */
+	static int length(long value) {
+		return LENGTHS[Long.numberOfLeadingZeros(value)];
+	}
+
+	/**
+	 * Maps a signed long into an unsigned long, so that values of small magnitude,
+	 * also negative, have many leading zeros.
+	 * 
+	 * @param value the signed long
+	 * @return the zig-zag encoding of {@code value}
+	 */
+	static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * The inverse of {@link #zigZag(long)}.
+	 * 
+	 * @param value the zig-zag encoding of a signed long
+	 * @return the signed long
+	 */
+	static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Writes the variable-length encoding of the given value into an array.
+	 * 
+	 * @param value the value, considered as unsigned
+	 * @param dest the array, that must have space for {@link #length(long)} bytes from {@code offset} on
+	 * @param offset the position of {@code dest} where the encoding must start
+	 * @return the position of {@code dest} after the encoding
+	 */
+	static int encode(long value, byte[] dest, int offset) {
+		while ((value & ~0x7FL) != 0L) {
+			dest[offset++] = (byte) (value | 0x80);
+			value >>>= 7;
+		}
+
+		dest[offset++] = (byte) value;
+		return offset;
+	}
+}
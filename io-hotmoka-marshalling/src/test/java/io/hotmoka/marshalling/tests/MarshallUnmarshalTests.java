@@ -2,17 +2,34 @@ package io.hotmoka.marshalling.tests;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.hotmoka.marshalling.MarshallingContexts;
+import io.hotmoka.marshalling.StringCaches;
 import io.hotmoka.marshalling.UnmarshallingContexts;
+import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.MarshallingFormat;
+import io.hotmoka.marshalling.api.UnmarshallingContext;
 import io.hotmoka.testing.AbstractLoggedTests;
 
 public class MarshallUnmarshalTests extends AbstractLoggedTests {
@@ -323,6 +340,35 @@ public class MarshallUnmarshalTests extends AbstractLoggedTests {
         }
     }
 
+    @Test
+    @DisplayName("many repeated shared Strings marshal unmarshal works")
+    public void manyRepeatedSharedStringsMarshalUnmarshalWorks() throws IOException {
+    	var expected = new String[5000];
+    	for (int pos = 0; pos < expected.length; pos++)
+    		expected[pos] = "s" + (pos * 7919 % 1000);
+
+    	ByteArrayOutputStream stream;
+        try (var baos = stream = new ByteArrayOutputStream(); var context = MarshallingContexts.of(baos)) {
+        	for (var s: expected)
+        		context.writeStringShared(s);
+        }
+
+        byte[] marshalled = stream.toByteArray();
+
+        try (var bais = new ByteArrayInputStream(marshalled); var context = UnmarshallingContexts.of(bais)) {
+        	for (var s: expected)
+        		assertEquals(s, context.readStringShared());
+        }
+    }
+
+    @Test
+    @DisplayName("unknown shared String unmarshal fails")
+    public void unknownSharedStringUnmarshalFails() throws IOException {
+        try (var context = UnmarshallingContexts.of(new byte[] { 3 }, 0, 1)) {
+        	assertThrows(IOException.class, context::readStringShared);
+        }
+    }
+
     @Test
     @DisplayName("byte[] marshal unmarshal works")
     public void byteArrayMarshalUnmarshalWorks() throws IOException {
@@ -376,4 +422,518 @@ public class MarshallUnmarshalTests extends AbstractLoggedTests {
         	assertEquals(expected, actual);
         }
     }
+
+    @Test
+    @DisplayName("buffered marshalling writes the same bytes in large chunks")
+    public void bufferedMarshallingWritesSameBytesInLargeChunks() throws IOException {
+    	var expected = new ByteArrayOutputStream();
+        try (var context = MarshallingContexts.of(expected)) {
+        	for (int i = 0; i < 1000; i++) {
+        		context.writeCompactInt(i * 31);
+        		context.writeStringShared("hello" + (i % 10));
+        	}
+        }
+
+        var writes = new int[1];
+        var actual = new ByteArrayOutputStream() {
+
+        	@Override
+        	public synchronized void write(int b) {
+        		writes[0]++;
+        		super.write(b);
+        	}
+
+        	@Override
+        	public synchronized void write(byte[] b, int off, int len) {
+        		writes[0]++;
+        		super.write(b, off, len);
+        	}
+        };
+
+        try (var context = MarshallingContexts.of(actual, 1024)) {
+        	for (int i = 0; i < 1000; i++) {
+        		context.writeCompactInt(i * 31);
+        		context.writeStringShared("hello" + (i % 10));
+        	}
+        }
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        assertTrue(writes[0] <= expected.size() / 1024 + 1);
+    }
+
+    @Test
+    @DisplayName("growable buffer marshalling writes the same bytes as stream marshalling")
+    public void growableBufferMarshallingWritesSameBytesAsStreamMarshalling() throws IOException {
+    	var expected = new ByteArrayOutputStream();
+        try (var context = MarshallingContexts.of(expected)) {
+        	writeMix(context);
+        }
+
+        try (var heap = MarshallingContexts.ofGrowableBuffer(16, false); var direct = MarshallingContexts.ofGrowableBuffer(16, true)) {
+        	writeMix(heap);
+        	writeMix(direct);
+        	assertArrayEquals(expected.toByteArray(), heap.toByteArray());
+        	assertArrayEquals(expected.toByteArray(), direct.toByteArray());
+        	assertEquals(ByteBuffer.wrap(expected.toByteArray()), direct.toByteBuffer());
+        }
+    }
+
+    @Test
+    @DisplayName("fixed buffer marshalling writes at the position of the buffer and fails on overflow")
+    public void fixedBufferMarshallingWritesAtPositionAndFailsOnOverflow() throws IOException {
+    	var buffer = ByteBuffer.allocate(10).position(3);
+        try (var context = MarshallingContexts.of(buffer)) {
+        	context.writeInt(42);
+        	assertEquals(7, buffer.position());
+        	assertEquals(42, buffer.getInt(3));
+        	assertThrows(IOException.class, () -> context.writeLong(13L));
+        }
+    }
+
+    @Test
+    @DisplayName("array and buffer unmarshalling read what stream marshalling writes")
+    public void arrayAndBufferUnmarshallingReadWhatStreamMarshallingWrites() throws IOException {
+    	var baos = new ByteArrayOutputStream();
+    	baos.write(new byte[] { 1, 2, 3 });
+        try (var context = MarshallingContexts.of(baos)) {
+        	writeMix(context);
+        }
+
+        byte[] marshalled = baos.toByteArray();
+
+        try (var context = UnmarshallingContexts.of(marshalled, 3, marshalled.length - 3)) {
+        	readMix(context);
+        	assertEquals(0, context.available());
+        	assertThrows(EOFException.class, context::readByte);
+        }
+
+        var direct = ByteBuffer.allocateDirect(marshalled.length).put(marshalled).position(3);
+        try (var context = UnmarshallingContexts.of(direct)) {
+        	readMix(context);
+        	assertEquals(marshalled.length, direct.position());
+        }
+    }
+
+    @Test
+    @DisplayName("mapped file unmarshalling reads and seeks a region of the file")
+    public void mappedFileUnmarshallingReadsAndSeeksRegion(@TempDir Path dir) throws IOException {
+    	var baos = new ByteArrayOutputStream();
+    	baos.write(new byte[100]);
+    	int offset;
+        try (var context = MarshallingContexts.of(baos)) {
+        	writeMix(context);
+        	context.flush();
+        	offset = baos.size() - 100;
+        	context.writeStringUnshared("here I am");
+        	context.writeLengthAndBytes(new byte[] { 13, 17, 19 });
+        }
+
+        var file = dir.resolve("marshalled");
+        Files.write(file, baos.toByteArray());
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ); var context = UnmarshallingContexts.of(channel, 100, baos.size() - 100)) {
+        	context.seek(offset);
+        	assertEquals("here I am", context.readStringUnshared());
+        	assertArrayEquals(new byte[] { 13, 17, 19 }, context.readLengthAndBytes("length mismatch error"));
+        	assertEquals(baos.size() - 100, context.position());
+        	context.seek(0);
+        	readMix(context);
+        	assertEquals(offset, context.position());
+        	assertThrows(IllegalArgumentException.class, () -> context.seek(baos.size()));
+        }
+    }
+
+    @Test
+    @DisplayName("channel marshalling writes the same bytes as stream marshalling")
+    public void channelMarshallingWritesSameBytesAsStreamMarshalling(@TempDir Path dir) throws IOException {
+    	var large = new byte[50_000];
+    	for (int pos = 0; pos < large.length; pos++)
+    		large[pos] = (byte) pos;
+
+    	var expected = new ByteArrayOutputStream();
+        try (var context = MarshallingContexts.of(expected)) {
+        	writeMix(context);
+        	context.writeLengthAndBytes(large);
+        	writeMix(context);
+        }
+
+        var actual = new ByteArrayOutputStream();
+        try (var context = MarshallingContexts.of(Channels.newChannel(actual), 64)) {
+        	writeMix(context);
+        	context.writeLengthAndBytes(large);
+        	writeMix(context);
+        }
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+        var file = dir.resolve("marshalled");
+        try (var context = MarshallingContexts.of(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
+        	writeMix(context);
+        	context.writeLengthAndBytes(large);
+        	writeMix(context);
+        }
+
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file));
+    }
+
+    @Test
+    @DisplayName("a string cache shares equal strings among contexts")
+    public void stringCacheSharesEqualStringsAmongContexts() throws IOException {
+    	var baos = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(baos)) {
+    		context.writeStringShared("caller");
+    		context.writeStringUnshared("caller");
+    		context.writeStringUnshared("città €");
+    		context.writeStringUnshared("x".repeat(1000));
+    	}
+
+    	byte[] bytes = baos.toByteArray();
+    	var direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    	var cache = StringCaches.of(16);
+    	String caller, unicode;
+
+    	try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(bytes))) {
+    		context.setStringCache(cache);
+    		caller = context.readStringShared();
+    		assertSame(caller, context.readStringUnshared());
+    		unicode = context.readStringUnshared();
+    		assertEquals("città €", unicode);
+    		assertEquals("x".repeat(1000), context.readStringUnshared());
+    	}
+
+    	for (var context: new UnmarshallingContext[] { UnmarshallingContexts.of(bytes, 0, bytes.length), UnmarshallingContexts.of(direct) }) {
+    		context.setStringCache(cache);
+    		assertSame(caller, context.readStringShared());
+    		assertSame(caller, context.readStringUnshared());
+    		assertSame(unicode, context.readStringUnshared());
+    		assertEquals("x".repeat(1000), context.readStringUnshared());
+    	}
+
+    	assertEquals(7, cache.hits());
+    	assertEquals(2, cache.misses());
+    }
+
+    @Test
+    @DisplayName("strings are encoded as their UTF-8 bytes by all kinds of context")
+    public void stringsAreEncodedAsTheirUTF8BytesByAllContexts() throws IOException {
+    	var strings = new String[] { "", "caller", "Ålbërt", "\u6771\u4eac \ud83d\ude00", "unpaired \ud83d", "\ude00 lone", "x".repeat(10_000) + "\u00e8" };
+
+    	var expected = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(expected)) {
+    		for (var s: strings) {
+    			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    			context.writeByte(255);
+    			context.writeLengthAndBytes(bytes);
+    			context.writeLengthAndBytes(bytes);
+    		}
+    	}
+
+    	var baos = new ByteArrayOutputStream();
+    	var heap = MarshallingContexts.ofGrowableBuffer(16, false);
+    	var direct = MarshallingContexts.ofGrowableBuffer(16, true);
+    	for (var context: new MarshallingContext[] { MarshallingContexts.of(baos), heap, direct }) {
+    		try (context) {
+    			for (var s: strings) {
+    				context.writeStringShared(s);
+    				context.writeStringUnshared(s);
+    			}
+    		}
+    	}
+
+    	assertArrayEquals(expected.toByteArray(), baos.toByteArray());
+    	assertArrayEquals(expected.toByteArray(), heap.toByteArray());
+    	assertArrayEquals(expected.toByteArray(), direct.toByteArray());
+
+    	try (var context = UnmarshallingContexts.of(baos.toByteArray(), 0, baos.size())) {
+    		for (var s: strings) {
+    			var decoded = new String(s.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    			assertEquals(decoded, context.readStringShared());
+    			assertEquals(decoded, context.readStringUnshared());
+    		}
+    	}
+    }
+
+    @Test
+    @DisplayName("large big integers are marshalled in decimal by V1 and in binary by V2")
+    public void largeBigIntegersMarshalledInDecimalByV1AndInBinaryByV2() throws IOException {
+    	var values = new BigInteger[] { BigInteger.TWO.pow(255).subtract(BigInteger.ONE), BigInteger.TWO.pow(64).negate(),
+    		BigInteger.valueOf(Long.MIN_VALUE), BigInteger.valueOf(250), BigInteger.TEN.pow(60).negate() };
+
+    	var v1 = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(v1)) {
+    		assertEquals(MarshallingFormat.V1, context.getFormat());
+    		for (var bi: values)
+    			context.writeBigInteger(bi);
+    	}
+
+    	var v2 = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(v2)) {
+    		context.setFormat(MarshallingFormat.V2);
+    		for (var bi: values)
+    			context.writeBigInteger(bi);
+    	}
+
+    	assertTrue(v2.size() < v1.size());
+
+    	try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(v1.toByteArray()))) {
+    		for (var bi: values)
+    			assertEquals(bi, context.readBigInteger());
+    	}
+
+    	try (var context = UnmarshallingContexts.of(v2.toByteArray(), 0, v2.size())) {
+    		context.setFormat(MarshallingFormat.V2);
+    		for (var bi: values)
+    			assertEquals(bi, context.readBigInteger());
+    	}
+    }
+
+    @Test
+    @DisplayName("big integers at the boundaries of primitive types use the smallest representation")
+    public void bigIntegersAtBoundariesUseSmallestRepresentation() throws IOException {
+    	long[] values = { 0, 251, 252, -1, Short.MIN_VALUE, Short.MAX_VALUE, Short.MAX_VALUE + 1, Short.MIN_VALUE - 1,
+    		Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L, Long.MIN_VALUE, Long.MAX_VALUE };
+    	int[] sizes = { 1, 1, 3, 3, 3, 3, 5, 5, 5, 5, 9, 9, 9, 9 };
+
+    	for (int pos = 0; pos < values.length; pos++) {
+    		var baos = new ByteArrayOutputStream();
+    		try (var context = MarshallingContexts.of(baos)) {
+    			context.writeBigInteger(BigInteger.valueOf(values[pos]));
+    			context.writeBigInteger(BigInteger.valueOf(values[pos]));
+    		}
+
+    		assertEquals(2 * sizes[pos], baos.size());
+
+    		try (var context = UnmarshallingContexts.of(baos.toByteArray(), 0, baos.size())) {
+    			var first = context.readBigInteger();
+    			assertEquals(BigInteger.valueOf(values[pos]), first);
+    			var second = context.readBigInteger();
+    			assertEquals(first, second);
+    			if (-128 <= values[pos] && values[pos] <= 251)
+    				assertSame(first, second);
+    		}
+    	}
+    }
+
+    @Test
+    @DisplayName("V3 marshals compact integers and longs as variable-length integers")
+    public void v3MarshalsCompactIntegersAndLongsAsVarints() throws IOException {
+    	int[] ints = { 0, 127, 128, 300, 16383, 16384, -1, Integer.MIN_VALUE, Integer.MAX_VALUE };
+    	int[] intSizes = { 1, 1, 2, 2, 2, 3, 5, 5, 5 };
+    	long[] longs = { 0L, -1L, 63L, -64L, 64L, 1_700_000_000_000L, Long.MIN_VALUE, Long.MAX_VALUE };
+    	int[] longSizes = { 1, 1, 1, 1, 2, 6, 10, 10 };
+
+    	for (int pos = 0; pos < ints.length; pos++) {
+    		var context = MarshallingContexts.ofGrowableBuffer(16, false);
+    		context.setFormat(MarshallingFormat.V3);
+    		context.writeCompactInt(ints[pos]);
+    		assertEquals(intSizes[pos], context.toByteArray().length);
+    	}
+
+    	for (int pos = 0; pos < longs.length; pos++) {
+    		var context = MarshallingContexts.ofGrowableBuffer(16, false);
+    		context.setFormat(MarshallingFormat.V3);
+    		context.writeCompactLong(longs[pos]);
+    		assertEquals(longSizes[pos], context.toByteArray().length);
+    	}
+
+    	var baos = new ByteArrayOutputStream();
+    	var direct = MarshallingContexts.ofGrowableBuffer(16, true);
+    	var channel = new ByteArrayOutputStream();
+    	for (var context: new MarshallingContext[] { MarshallingContexts.of(baos), direct, MarshallingContexts.of(Channels.newChannel(channel), 8) }) {
+    		try (context) {
+    			context.setFormat(MarshallingFormat.V3);
+    			for (int i: ints)
+    				context.writeCompactInt(i);
+    			for (long l: longs)
+    				context.writeCompactLong(l);
+    			writeMix(context);
+    		}
+    	}
+
+    	assertArrayEquals(baos.toByteArray(), direct.toByteArray());
+    	assertArrayEquals(baos.toByteArray(), channel.toByteArray());
+
+    	var buffer = ByteBuffer.allocateDirect(baos.size()).put(baos.toByteArray()).flip();
+    	for (var context: new UnmarshallingContext[] { UnmarshallingContexts.of(new ByteArrayInputStream(baos.toByteArray())), UnmarshallingContexts.of(buffer) }) {
+    		try (context) {
+    			context.setFormat(MarshallingFormat.V3);
+    			for (int i: ints)
+    				assertEquals(i, context.readCompactInt());
+    			for (long l: longs)
+    				assertEquals(l, context.readCompactLong());
+    			readMix(context);
+    		}
+    	}
+    }
+
+    @Test
+    @DisplayName("V3 rejects malformed variable-length integers")
+    public void v3RejectsMalformedVarints() throws IOException {
+    	var tooLong = new byte[11];
+    	Arrays.fill(tooLong, (byte) 0x80);
+    	var outOfInt = new byte[] { (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10 };
+    	var truncated = new byte[] { (byte) 0x80 };
+
+    	for (var bytes: new byte[][] { tooLong, outOfInt, truncated })
+    		for (var context: new UnmarshallingContext[] { UnmarshallingContexts.of(new ByteArrayInputStream(bytes)), UnmarshallingContexts.of(bytes, 0, bytes.length) }) {
+    			context.setFormat(MarshallingFormat.V3);
+    			assertThrows(IOException.class, context::readCompactInt);
+    		}
+    }
+
+    @Test
+    @DisplayName("arrays of primitive values are marshalled in bulk as their elements one by one")
+    public void primitiveArraysMarshalledInBulkAsElementsOneByOne() throws IOException {
+    	var longs = new long[5000];
+    	var ints = new int[3000];
+    	var shorts = new short[7];
+    	var doubles = new double[2100];
+    	for (int pos = 0; pos < longs.length; pos++)
+    		longs[pos] = pos * 0x123456789L - 17;
+    	for (int pos = 0; pos < ints.length; pos++)
+    		ints[pos] = -pos * 65537;
+    	for (int pos = 0; pos < shorts.length; pos++)
+    		shorts[pos] = (short) (pos * 1000 - 3000);
+    	for (int pos = 0; pos < doubles.length; pos++)
+    		doubles[pos] = pos / 7.0;
+
+    	var expected = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(expected)) {
+    		context.writeCompactInt(longs.length);
+    		for (long l: longs)
+    			context.writeLong(l);
+    		context.writeCompactInt(ints.length);
+    		for (int i: ints)
+    			context.writeInt(i);
+    		context.writeCompactInt(shorts.length);
+    		for (short sh: shorts)
+    			context.writeShort(sh);
+    		context.writeCompactInt(doubles.length);
+    		for (double d: doubles)
+    			context.writeDouble(d);
+    		context.writeCompactInt(0);
+    	}
+
+    	var baos = new ByteArrayOutputStream();
+    	var heap = MarshallingContexts.ofGrowableBuffer(16, false);
+    	var direct = MarshallingContexts.ofGrowableBuffer(16, true);
+    	var channel = new ByteArrayOutputStream();
+    	for (var context: new MarshallingContext[] { MarshallingContexts.of(baos), heap, direct, MarshallingContexts.of(Channels.newChannel(channel), 20) }) {
+    		try (context) {
+    			context.writeLongArray(longs);
+    			context.writeIntArray(ints);
+    			context.writeShortArray(shorts);
+    			context.writeDoubleArray(doubles);
+    			context.writeLongArray(new long[0]);
+    		}
+    	}
+
+    	assertArrayEquals(expected.toByteArray(), baos.toByteArray());
+    	assertArrayEquals(expected.toByteArray(), heap.toByteArray());
+    	assertArrayEquals(expected.toByteArray(), direct.toByteArray());
+    	assertArrayEquals(expected.toByteArray(), channel.toByteArray());
+
+    	byte[] bytes = expected.toByteArray();
+    	for (var context: new UnmarshallingContext[] { UnmarshallingContexts.of(new ByteArrayInputStream(bytes)), UnmarshallingContexts.of(direct.toByteBuffer()) }) {
+    		try (context) {
+    			assertArrayEquals(longs, context.readLongArray());
+    			assertArrayEquals(ints, context.readIntArray());
+    			assertArrayEquals(shorts, context.readShortArray());
+    			assertArrayEquals(doubles, context.readDoubleArray());
+    			assertEquals(0, context.readLongArray().length);
+    		}
+    	}
+
+    	byte[] truncated = Arrays.copyOf(bytes, 1000);
+    	assertThrows(EOFException.class, () -> UnmarshallingContexts.of(new ByteArrayInputStream(truncated)).readLongArray());
+    	assertThrows(EOFException.class, () -> UnmarshallingContexts.of(truncated, 0, truncated.length).readLongArray());
+    }
+
+    @Test
+    @DisplayName("slices are views of the bytes of array contexts and copies for stream contexts")
+    public void slicesAreViewsForArraysAndCopiesForStreams() throws IOException {
+    	var payload = new byte[20_000];
+    	for (int pos = 0; pos < payload.length; pos++)
+    		payload[pos] = (byte) pos;
+
+    	var baos = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(baos)) {
+    		context.writeLengthAndBytes(payload);
+    		context.writeInt(42);
+    	}
+
+    	byte[] bytes = baos.toByteArray();
+    	ByteBuffer fromArray, fromStream;
+
+    	try (var context = UnmarshallingContexts.of(bytes, 0, bytes.length)) {
+    		fromArray = context.readLengthAndSlice("length mismatch");
+    		assertEquals(42, context.readInt());
+    	}
+
+    	try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(bytes))) {
+    		fromStream = context.readLengthAndSlice("length mismatch");
+    		assertEquals(42, context.readInt());
+    	}
+
+    	for (var slice: new ByteBuffer[] { fromArray, fromStream }) {
+    		assertTrue(slice.isReadOnly());
+    		assertEquals(0, slice.position());
+    		assertEquals(ByteBuffer.wrap(payload), slice);
+    	}
+
+    	// the slice read from the array is a view of the array, that from the stream is a copy
+    	bytes[bytes.length - 5] = 13;
+    	assertEquals(13, fromArray.get(payload.length - 1));
+    	assertEquals(payload[payload.length - 1], fromStream.get(payload.length - 1));
+
+    	var truncated = Arrays.copyOf(bytes, 100);
+    	var e = assertThrows(IOException.class, () -> UnmarshallingContexts.of(truncated, 0, truncated.length).readLengthAndSlice("length mismatch"));
+    	assertEquals("length mismatch", e.getMessage());
+
+    	// a corrupted, negative length is reported as a mismatch as well
+    	var corrupted = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(corrupted)) {
+    		context.writeCompactInt(-5);
+    	}
+
+    	byte[] negative = corrupted.toByteArray();
+    	for (var context: new UnmarshallingContext[] { UnmarshallingContexts.of(negative, 0, negative.length), UnmarshallingContexts.of(new ByteArrayInputStream(negative)) }) {
+    		try (context) {
+    			e = assertThrows(IOException.class, () -> context.readLengthAndBytes("length mismatch"));
+    			assertEquals("length mismatch", e.getMessage());
+    		}
+    	}
+    }
+
+    private static void writeMix(MarshallingContext context) throws IOException {
+    	for (int i = 0; i < 300; i++) {
+    		context.writeCompactInt(i * 131);
+    		context.writeCompactLong(-i * 1000003L);
+    		context.writeStringShared("hello" + (i % 10));
+    		context.writeStringUnshared("world");
+    		context.writeBigInteger(BigInteger.valueOf(i).pow(i % 20));
+    		context.writeDouble(i / 3.0);
+    		context.writeFloat(i / 7.0f);
+    		context.writeChar('a' + i % 26);
+    		context.writeShort(i);
+    		context.writeBoolean(i % 2 == 0);
+    		context.writeLengthAndBytes(new byte[i % 17]);
+    	}
+    }
+
+    private static void readMix(UnmarshallingContext context) throws IOException {
+    	for (int i = 0; i < 300; i++) {
+    		assertEquals(i * 131, context.readCompactInt());
+    		assertEquals(-i * 1000003L, context.readCompactLong());
+    		assertEquals("hello" + (i % 10), context.readStringShared());
+    		assertEquals("world", context.readStringUnshared());
+    		assertEquals(BigInteger.valueOf(i).pow(i % 20), context.readBigInteger());
+    		assertEquals(i / 3.0, context.readDouble());
+    		assertEquals(i / 7.0f, context.readFloat());
+    		assertEquals('a' + i % 26, context.readChar());
+    		assertEquals(i, context.readShort());
+    		assertEquals(i % 2 == 0, context.readBoolean());
+    		assertEquals(i % 17, context.readLengthAndBytes("length mismatch error").length);
+    	}
+    }
 }
\ No newline at end of file
@@ -56,6 +56,18 @@ public class MyMarshallable extends AbstractMarshallable {
 		this(context.readStringShared(), context.readStringShared(), context.readCompactInt());
 	}
 
+	/**
+	 * Skips a {@link MyMarshallable} in the given context, without creating it.
+	 * 
+	 * @param context the unmarshalling context
+	 * @throws IOException if the object could not be skipped
+	 */
+	public static void skip(UnmarshallingContext context) throws IOException {
+		context.skipStringShared();
+		context.skipStringShared();
+		context.skipCompactInt();
+	}
+
 	@Override
 	public void into(MarshallingContext context) throws IOException {
 		// by writing shared strings, we could reduce the size of the marshalled data
@@ -1,16 +1,42 @@
 package io.hotmoka.marshalling.tests;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import io.hotmoka.marshalling.AbstractMarshallable;
+import io.hotmoka.marshalling.AbstractMarshallingContext;
+import io.hotmoka.marshalling.AbstractObjectMarshaller;
+import io.hotmoka.marshalling.AbstractObjectUnmarshaller;
+import io.hotmoka.marshalling.AbstractUnmarshallingContext;
+import io.hotmoka.marshalling.MarshallerRegistries;
 import io.hotmoka.marshalling.MarshallingContexts;
+import io.hotmoka.marshalling.RecordMarshallers;
 import io.hotmoka.marshalling.UnmarshallingContexts;
+import io.hotmoka.marshalling.api.Compact;
+import io.hotmoka.marshalling.api.MarshallingContext;
+import io.hotmoka.marshalling.api.MarshallingFormat;
+import io.hotmoka.marshalling.api.Shared;
+import io.hotmoka.marshalling.api.Unmarshaller;
+import io.hotmoka.marshalling.api.UnmarshallingContext;
 import io.hotmoka.testing.AbstractLoggedTests;
 
 public class ObjectMarshallUnmarshalTests extends AbstractLoggedTests {
@@ -32,4 +58,676 @@ public class ObjectMarshallUnmarshalTests extends AbstractLoggedTests {
         	assertEquals(expected, actual);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("size coincides with the length of the marshalled bytes")
+    public void sizeCoincidesWithLengthOfMarshalledBytes() {
+    	var marshallables = new MyMarshallable[] {
+    		new MyMarshallable("Albert", "Einstein", 1879),
+    		new MyMarshallable("Albert", "Albert", -1879),
+    		new MyMarshallable("Ålbërt Ëinstein", "\u6771\u4eac \ud83d\ude00", 1_000_000),
+    		new MyMarshallable("unpaired \ud83d surrogate", "\ude00", 254),
+    		new MyMarshallable("", "x".repeat(70_000), Integer.MIN_VALUE)
+    	};
+
+    	for (var marshallable: marshallables)
+    		assertEquals(marshallable.toByteArray().length, marshallable.size());
+    }
+
+    @Test
+    @DisplayName("toByteArray works for exact, smaller and larger size estimations")
+    public void toByteArrayWorksForAllSizeEstimations() throws IOException {
+    	var expected = new ByteArrayOutputStream();
+        try (var context = MarshallingContexts.of(expected)) {
+        	new MyMarshallable("Albert", "Einstein", 1879).into(context);
+        }
+
+        int size = expected.size();
+        for (int estimation: new int[] { size, 0, 1, size - 1, size + 1, 1000 }) {
+        	var marshallable = new AbstractMarshallable() {
+
+        		@Override
+        		public void into(MarshallingContext context) throws IOException {
+        			new MyMarshallable("Albert", "Einstein", 1879).into(context);
+        		}
+
+        		@Override
+        		protected int estimatedSize() {
+        			return estimation;
+        		}
+        	};
+
+        	assertArrayEquals(expected.toByteArray(), marshallable.toByteArray());
+        }
+    }
+
+    @Test
+    @DisplayName("skipping values leaves the context ready for the following ones")
+    public void skippingLeavesContextReadyForFollowingValues() throws IOException {
+    	var array = new MyMarshallable[] {
+    		new MyMarshallable("Albert", "Einstein", 1879),
+    		new MyMarshallable("Marie", "Curie", 1867),
+    		new MyMarshallable("Albert", "Curie", 300)
+    	};
+
+    	for (var format: MarshallingFormat.values()) {
+    		var baos = new ByteArrayOutputStream();
+    		try (var context = MarshallingContexts.of(baos)) {
+    			context.setFormat(format);
+    			context.writeCompactInt(70_000);
+    			context.writeCompactLong(-5_000_000_000L);
+    			context.writeBigInteger(BigInteger.TWO.pow(200));
+    			context.writeBigInteger(BigInteger.valueOf(-300));
+    			context.writeBigInteger(BigInteger.valueOf(7));
+    			context.writeLengthAndBytes(new byte[1000]);
+    			context.writeStringUnshared("unshared");
+    			context.writeLengthAndArray(array);
+    			context.writeLengthAndArray(array);
+    			context.writeStringShared("Einstein");
+    			context.writeStringShared("Marie");
+    		}
+
+    		for (var context: new UnmarshallingContext[] { UnmarshallingContexts.of(new ByteArrayInputStream(baos.toByteArray())), UnmarshallingContexts.of(baos.toByteArray(), 0, baos.size()) }) {
+    			try (context) {
+    				context.setFormat(format);
+    				context.skipCompactInt();
+    				context.skipCompactLong();
+    				context.skipBigInteger();
+    				context.skipBigInteger();
+    				context.skipBigInteger();
+    				context.skipLengthAndBytes();
+    				context.skipStringUnshared();
+    				context.skipLengthAndArray(MyMarshallable::skip);
+    				context.skipLengthAndArray(MyMarshallable::new);
+    				// the strings skipped with the arrays are still available for sharing
+    				assertEquals("Einstein", context.readStringShared());
+    				assertEquals("Marie", context.readStringShared());
+    				assertEquals(0, context.available());
+    			}
+    		}
+    	}
+    }
+
+    @Test
+    @DisplayName("streams of marshallables are unmarshalled lazily and skip the rest when closed")
+    public void streamsAreLazyAndSkipTheRestWhenClosed() throws IOException {
+    	var array = new MyMarshallable[1000];
+    	for (int pos = 0; pos < array.length; pos++)
+    		array[pos] = new MyMarshallable("name" + pos % 10, "surname" + pos, pos);
+
+    	var baos = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(baos)) {
+    		context.writeLengthAndArray(array);
+    		context.writeStringShared("name3");
+    	}
+
+    	byte[] bytes = baos.toByteArray();
+
+    	try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(bytes))) {
+    		try (var stream = context.readLengthAndStream(MyMarshallable::new, MyMarshallable::skip)) {
+    			assertArrayEquals(Arrays.copyOf(array, 5), stream.limit(5).toArray());
+    		}
+
+    		assertEquals("name3", context.readStringShared());
+    	}
+
+    	try (var context = UnmarshallingContexts.of(bytes, 0, bytes.length); var stream = context.readLengthAndStream(MyMarshallable::new, MyMarshallable::skip)) {
+    		assertArrayEquals(array, stream.toArray());
+    	}
+
+    	var truncated = Arrays.copyOf(bytes, bytes.length / 2);
+    	try (var context = UnmarshallingContexts.of(truncated, 0, truncated.length); var stream = context.readLengthAndStream(MyMarshallable::new, MyMarshallable::skip)) {
+    		var iterator = stream.iterator();
+    		assertEquals(array[0], iterator.next());
+    		assertThrows(UncheckedIOException.class, () -> { while (iterator.hasNext()) iterator.next(); });
+    	}
+
+    	// after an unchecked failure, the position of the context is unknown: nothing more is unmarshalled or skipped
+    	var unmarshalled = new AtomicInteger();
+    	Unmarshaller<MyMarshallable> failing = context -> {
+    		if (unmarshalled.incrementAndGet() == 2)
+    			throw new IllegalStateException("corrupted element");
+
+    		return new MyMarshallable(context);
+    	};
+
+    	try (var context = UnmarshallingContexts.of(bytes, 0, bytes.length)) {
+    		var stream = context.readLengthAndStream(failing, c -> { throw new AssertionError("no element should be skipped"); });
+    		var iterator = stream.iterator();
+    		assertEquals(array[0], iterator.next());
+    		assertThrows(IllegalStateException.class, iterator::next);
+    		assertFalse(iterator.hasNext());
+    		stream.close();
+    		assertEquals(2, unmarshalled.get());
+    	}
+    }
+
+    @Test
+    @DisplayName("parallel marshalling of arrays yields the same bytes as sequential marshalling")
+    public void parallelMarshallingYieldsSameBytesAsSequential() throws IOException {
+    	var pool = new ForkJoinPool(4);
+
+    	try {
+    		var distinct = new MyMarshallable[2000];
+    		var repeated = new MyMarshallable[2000];
+    		for (int pos = 0; pos < distinct.length; pos++) {
+    			distinct[pos] = new MyMarshallable("name" + pos, "surname" + pos, pos);
+    			repeated[pos] = new MyMarshallable("name" + pos % 7, "surname" + pos % 300, -pos);
+    		}
+
+    		for (var format: MarshallingFormat.values()) {
+    			for (var array: new MyMarshallable[][] { distinct, repeated, Arrays.copyOf(repeated, 3), new MyMarshallable[0] }) {
+    				var sequential = new ByteArrayOutputStream();
+    				var parallel = new ByteArrayOutputStream();
+
+    				for (var baos: new ByteArrayOutputStream[] { sequential, parallel }) {
+    					try (var context = MarshallingContexts.of(baos)) {
+    						context.setFormat(format);
+    						// these strings are shared before the array, hence they form a frozen dictionary
+    						for (int pos = 0; pos < 5; pos++)
+    							context.writeStringShared("name" + pos);
+
+    						if (baos == sequential) {
+    							context.writeLengthAndArray(array);
+    							context.writeLengthAndArray(array);
+    						}
+    						else {
+    							context.writeLengthAndArray(array, pool);
+    							context.writeLengthAndArray(array, pool);
+    						}
+
+    						context.writeStringShared("surname299");
+    						context.writeStringShared("name6");
+    					}
+    				}
+
+    				assertArrayEquals(sequential.toByteArray(), parallel.toByteArray());
+    			}
+    		}
+    	}
+    	finally {
+    		pool.shutdown();
+    	}
+    }
+
+    @Test
+    @DisplayName("indexed arrays are unmarshalled by index, sequentially and in parallel")
+    public void indexedArraysAreUnmarshalledByIndex() throws IOException {
+    	var pool = new ForkJoinPool(4);
+
+    	try {
+    		// the sizes of the arrays require offsets of 1, 2 and 4 bytes, respectively
+    		for (int length: new int[] { 0, 3, 1000, 5000 }) {
+    			var array = new MyMarshallable[length];
+    			for (int pos = 0; pos < length; pos++)
+    				array[pos] = new MyMarshallable("name" + pos % 10, "name" + pos % 10, pos);
+
+    			var sequential = new ByteArrayOutputStream();
+    			try (var context = MarshallingContexts.of(sequential)) {
+    				context.writeStringShared("name0");
+    				context.writeIndexedArray(array);
+    				context.writeIndexedArray(array);
+    				context.writeStringShared("name0");
+    			}
+
+    			var parallel = new ByteArrayOutputStream();
+    			try (var context = MarshallingContexts.of(parallel)) {
+    				context.writeStringShared("name0");
+    				context.writeIndexedArray(array, pool);
+    				context.writeIndexedArray(array, pool);
+    				context.writeStringShared("name0");
+    			}
+
+    			byte[] bytes = sequential.toByteArray();
+    			assertArrayEquals(bytes, parallel.toByteArray());
+
+    			for (var context: new UnmarshallingContext[] { UnmarshallingContexts.of(new ByteArrayInputStream(bytes)), UnmarshallingContexts.of(bytes, 0, bytes.length) }) {
+    				try (context) {
+    					assertEquals("name0", context.readStringShared());
+    					var indexed = context.readIndexedArray();
+    					assertEquals(length, indexed.length());
+    					for (int pos = length - 1; pos >= 0; pos -= 7)
+    						assertEquals(array[pos], indexed.get(pos, MyMarshallable::new));
+
+    					assertThrows(IndexOutOfBoundsException.class, () -> indexed.get(length, MyMarshallable::new));
+    					assertArrayEquals(array, indexed.toArray(MyMarshallable::new, MyMarshallable[]::new));
+    					assertArrayEquals(array, indexed.toArray(MyMarshallable::new, MyMarshallable[]::new, pool));
+    					context.skipIndexedArray();
+    					assertEquals("name0", context.readStringShared());
+    					assertEquals(0, context.available());
+    				}
+    			}
+    		}
+    	}
+    	finally {
+    		pool.shutdown();
+    	}
+    }
+
+    private interface Shape {}
+
+    private record Point(int x, int y) implements Shape {}
+
+    private record Label(String text) implements Shape {}
+
+    private static class PointMarshaller extends AbstractObjectMarshaller<Point> {
+
+    	private PointMarshaller() {
+    		super(Point.class);
+    	}
+
+		@Override
+		public void write(Point point, MarshallingContext context) throws IOException {
+			context.writeCompactInt(point.x);
+			context.writeCompactInt(point.y);
+		}
+    }
+
+    private static class PointUnmarshaller extends AbstractObjectUnmarshaller<Point> {
+
+    	private PointUnmarshaller() {
+    		super(Point.class);
+    	}
+
+		@Override
+		public Point read(UnmarshallingContext context) throws IOException {
+			return new Point(context.readCompactInt(), context.readCompactInt());
+		}
+    }
+
+    @Test
+    @DisplayName("a shared registry provides object marshallers and unmarshallers to many contexts")
+    public void sharedRegistryWorksForManyContexts() throws IOException {
+    	var registry = MarshallerRegistries.empty().withMarshaller(new PointMarshaller()).withUnmarshaller(new PointUnmarshaller());
+    	assertNull(MarshallerRegistries.empty().getMarshaller(Point.class));
+
+    	for (int pos = 0; pos < 10; pos++) {
+    		var point = new Point(pos, -pos);
+    		var baos = new ByteArrayOutputStream();
+    		try (var context = MarshallingContexts.of(baos)) {
+    			context.setMarshallerRegistry(registry);
+    			context.writeObject(Point.class, point);
+    			assertThrows(IOException.class, () -> context.writeObject(String.class, "hello"));
+    		}
+
+    		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(baos.toByteArray()))) {
+    			context.setMarshallerRegistry(registry);
+    			assertEquals(point, context.readObject(Point.class));
+    			assertThrows(NullPointerException.class, () -> context.readObject(String.class));
+    		}
+    	}
+    }
+
+    @Test
+    @DisplayName("object marshallers registered by a context take precedence over its registry")
+    public void registeredMarshallersTakePrecedenceOverRegistry() throws IOException {
+    	// the registry marshals points with fixed-size coordinates, the registered marshallers in compact form
+    	var registry = MarshallerRegistries.empty()
+    		.withMarshaller(new AbstractObjectMarshaller<>(Point.class) {
+
+    			@Override
+    			public void write(Point point, MarshallingContext context) throws IOException {
+    				context.writeInt(point.x);
+    				context.writeInt(point.y);
+    			}
+    		})
+    		.withUnmarshaller(new AbstractObjectUnmarshaller<>(Point.class) {
+
+    			@Override
+    			public Point read(UnmarshallingContext context) throws IOException {
+    				return new Point(context.readInt(), context.readInt());
+    			}
+    		});
+
+    	var point = new Point(3, 4);
+    	var baos = new ByteArrayOutputStream();
+    	try (var context = new AbstractMarshallingContext(baos) {{ registerObjectMarshaller(new PointMarshaller()); }}) {
+    		context.setMarshallerRegistry(registry);
+    		context.writeObject(Point.class, point);
+    	}
+
+    	byte[] bytes = baos.toByteArray();
+    	assertEquals(2, bytes.length);
+
+    	try (var context = new AbstractUnmarshallingContext(bytes, 0, bytes.length) {{ registerObjectUnmarshaller(new PointUnmarshaller()); }}) {
+    		context.setMarshallerRegistry(registry);
+    		assertEquals(point, context.readObject(Point.class));
+    	}
+    }
+
+    @Test
+    @DisplayName("object marshallers registered by a context take precedence over its registry for tagged objects")
+    public void registeredMarshallersTakePrecedenceOverRegistryForTaggedObjects() throws IOException {
+    	// the registry marshals points with fixed-size coordinates, the registered marshallers in compact form
+    	var registry = MarshallerRegistries.empty()
+    		.withMarshaller(new AbstractObjectMarshaller<>(Point.class) {
+
+    			@Override
+    			public void write(Point point, MarshallingContext context) throws IOException {
+    				context.writeInt(point.x);
+    				context.writeInt(point.y);
+    			}
+    		})
+    		.withUnmarshaller(new AbstractObjectUnmarshaller<>(Point.class) {
+
+    			@Override
+    			public Point read(UnmarshallingContext context) throws IOException {
+    				return new Point(context.readInt(), context.readInt());
+    			}
+    		})
+    		.withTag(Point.class, 7);
+
+    	var point = new Point(3, 4);
+    	var baos = new ByteArrayOutputStream();
+    	try (var context = new AbstractMarshallingContext(baos) {{ registerObjectMarshaller(new PointMarshaller()); }}) {
+    		context.setMarshallerRegistry(registry);
+    		context.writeTaggedObject(point);
+    	}
+
+    	byte[] bytes = baos.toByteArray();
+    	assertEquals(3, bytes.length);
+
+    	try (var context = new AbstractUnmarshallingContext(bytes, 0, bytes.length) {{ registerObjectUnmarshaller(new PointUnmarshaller()); }}) {
+    		context.setMarshallerRegistry(registry);
+    		assertEquals(point, context.readTaggedObject(Shape.class));
+    	}
+    }
+
+    @Test
+    @DisplayName("tagged objects are unmarshalled without knowing their class in advance")
+    public void taggedObjectsAreUnmarshalledPolymorphically() throws IOException {
+    	var registry = MarshallerRegistries.empty()
+    		.withMarshaller(new PointMarshaller())
+    		.withUnmarshaller(new PointUnmarshaller())
+    		.withMarshaller(new AbstractObjectMarshaller<>(Label.class) {
+
+    			@Override
+    			public void write(Label label, MarshallingContext context) throws IOException {
+    				context.writeStringShared(label.text);
+    			}
+    		})
+    		.withUnmarshaller(new AbstractObjectUnmarshaller<>(Label.class) {
+
+    			@Override
+    			public Label read(UnmarshallingContext context) throws IOException {
+    				return new Label(context.readStringShared());
+    			}
+    		})
+    		.withTag(Point.class, 0)
+    		.withTag(Label.class, 300);
+
+    	assertThrows(IllegalArgumentException.class, () -> registry.withTag(Point.class, 1));
+    	assertThrows(IllegalArgumentException.class, () -> registry.withTag(String.class, 300));
+    	assertThrows(IllegalArgumentException.class, () -> registry.withTag(String.class, -1));
+
+    	var shapes = new Shape[] { new Point(1, 2), new Label("hello"), new Label("hello"), new Point(-3, 4) };
+
+    	for (var format: MarshallingFormat.values()) {
+    		var baos = new ByteArrayOutputStream();
+    		try (var context = MarshallingContexts.of(baos)) {
+    			context.setFormat(format);
+    			context.setMarshallerRegistry(registry);
+    			for (var shape: shapes)
+    				context.writeTaggedObject(shape);
+
+    			// strings have no type tag
+    			assertThrows(IOException.class, () -> context.writeTaggedObject("hello"));
+    		}
+
+    		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(baos.toByteArray()))) {
+    			context.setFormat(format);
+    			context.setMarshallerRegistry(registry);
+    			for (var shape: shapes)
+    				assertEquals(shape, context.readTaggedObject(Shape.class));
+    		}
+
+    		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(baos.toByteArray()))) {
+    			context.setFormat(format);
+    			context.setMarshallerRegistry(registry);
+    			assertEquals(shapes[0], context.readTaggedObject(Point.class));
+    			// the second object is a label, not a point
+    			assertThrows(IOException.class, () -> context.readTaggedObject(Point.class));
+    		}
+    	}
+    }
+
+    private record Transfer(@Shared String from, @Shared String to, @Compact long amount, @Compact int nonce, int fee,
+    		byte[] data, long[] history, BigInteger balance, boolean urgent, double rate, Point where) {}
+
+    private record Nested(int depth, Nested inner) {}
+
+    private record Misannotated(@Compact String name) {}
+
+    @Test
+    @DisplayName("records marshalled at run time yield the same bytes as hand-written marshallers")
+    public void recordMarshallersYieldSameBytesAsHandWritten() throws IOException {
+    	var registry = RecordMarshallers.register(MarshallerRegistries.empty(), Transfer.class, MethodHandles.lookup());
+    	var transfers = new Transfer[] {
+    		new Transfer("alice", "bob", 13L, 1, 100, new byte[] { 1, 2, 3 }, new long[] { 5L, -7L }, BigInteger.TEN.pow(30), true, 0.5, new Point(1, 2)),
+    		new Transfer("bob", "alice", -1L, 1234567, -100, new byte[0], new long[0], BigInteger.ONE.negate(), false, -2.25, new Point(-3, 4))
+    	};
+
+    	for (var format: MarshallingFormat.values()) {
+    		var expected = new ByteArrayOutputStream();
+    		try (var context = MarshallingContexts.of(expected)) {
+    			context.setFormat(format);
+    			for (var transfer: transfers) {
+    				context.writeStringShared(transfer.from);
+    				context.writeStringShared(transfer.to);
+    				context.writeCompactLong(transfer.amount);
+    				context.writeCompactInt(transfer.nonce);
+    				context.writeInt(transfer.fee);
+    				context.writeLengthAndBytes(transfer.data);
+    				context.writeLongArray(transfer.history);
+    				context.writeBigInteger(transfer.balance);
+    				context.writeBoolean(transfer.urgent);
+    				context.writeDouble(transfer.rate);
+    				context.writeInt(transfer.where.x);
+    				context.writeInt(transfer.where.y);
+    			}
+    		}
+
+    		var actual = new ByteArrayOutputStream();
+    		try (var context = MarshallingContexts.of(actual)) {
+    			context.setFormat(format);
+    			context.setMarshallerRegistry(registry);
+    			for (var transfer: transfers)
+    				context.writeObject(Transfer.class, transfer);
+    		}
+
+    		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+    		try (var context = UnmarshallingContexts.of(new ByteArrayInputStream(actual.toByteArray()))) {
+    			context.setFormat(format);
+    			context.setMarshallerRegistry(registry);
+    			for (var transfer: transfers) {
+    				var read = context.readObject(Transfer.class);
+    				assertEquals(transfer.from, read.from);
+    				assertEquals(transfer.to, read.to);
+    				assertEquals(transfer.amount, read.amount);
+    				assertEquals(transfer.nonce, read.nonce);
+    				assertEquals(transfer.fee, read.fee);
+    				assertArrayEquals(transfer.data, read.data);
+    				assertArrayEquals(transfer.history, read.history);
+    				assertEquals(transfer.balance, read.balance);
+    				assertEquals(transfer.urgent, read.urgent);
+    				assertEquals(transfer.rate, read.rate);
+    				assertEquals(transfer.where, read.where);
+    			}
+    		}
+    	}
+    }
+
+    @Test
+    @DisplayName("records that cannot be marshalled at run time are rejected")
+    public void recordMarshallersRejectIllegalRecords() {
+    	var lookup = MethodHandles.lookup();
+    	assertThrows(IllegalArgumentException.class, () -> RecordMarshallers.marshallerOf(Nested.class, lookup));
+    	assertThrows(IllegalArgumentException.class, () -> RecordMarshallers.unmarshallerOf(Misannotated.class, lookup));
+    	// the public lookup cannot access a private record
+    	assertThrows(IllegalArgumentException.class, () -> RecordMarshallers.marshallerOf(Point.class, MethodHandles.publicLookup()));
+    }
+
+    @Test
+    @DisplayName("incremental unmarshalling reads the objects fed in chunks of any size")
+    public void incrementalUnmarshallingReadsObjectsFedInChunks() throws IOException {
+    	var registry = RecordMarshallers.register(MarshallerRegistries.empty(), Transfer.class, MethodHandles.lookup());
+    	var marshallables = new MyMarshallable[300];
+    	var transfers = new Transfer[marshallables.length];
+    	for (int pos = 0; pos < marshallables.length; pos++) {
+    		marshallables[pos] = new MyMarshallable("name" + pos % 7, "x".repeat(pos), pos * 1000);
+    		transfers[pos] = new Transfer("from" + pos % 5, "to" + pos % 3, pos, -pos, pos * pos, new byte[pos], new long[pos % 10],
+    			BigInteger.TWO.pow(pos), pos % 2 == 0, pos / 3.0, new Point(pos, -pos));
+    	}
+
+    	for (var format: MarshallingFormat.values()) {
+    		var baos = new ByteArrayOutputStream();
+    		try (var context = MarshallingContexts.of(baos)) {
+    			context.setFormat(format);
+    			context.setMarshallerRegistry(registry);
+    			for (int pos = 0; pos < marshallables.length; pos++) {
+    				marshallables[pos].into(context);
+    				context.writeObject(Transfer.class, transfers[pos]);
+    			}
+    		}
+
+    		byte[] bytes = baos.toByteArray();
+
+    		for (int chunkSize: new int[] { 1, 7, 1000, bytes.length }) {
+    			try (var context = UnmarshallingContexts.incremental()) {
+    				context.setFormat(format);
+    				context.setMarshallerRegistry(registry);
+    				assertNull(context.tryRead(MyMarshallable::new));
+    				assertTrue(context.missingBytes() > 0);
+
+    				int read = 0;
+    				for (int start = 0; start < bytes.length; start += chunkSize) {
+    					var chunk = ByteBuffer.wrap(bytes, start, Math.min(chunkSize, bytes.length - start));
+    					context.feed(chunk);
+    					assertEquals(0, chunk.remaining());
+
+    					// objects alternate between marshallables and transfers
+    					Object object;
+    					while ((object = read % 2 == 0 ? context.tryRead(MyMarshallable::new) : context.tryReadObject(Transfer.class)) != null) {
+    						if (read % 2 == 0)
+    							assertEquals(marshallables[read / 2], object);
+    						else {
+    							var transfer = (Transfer) object;
+    							assertEquals(transfers[read / 2].from, transfer.from);
+    							assertArrayEquals(transfers[read / 2].data, transfer.data);
+    							assertEquals(transfers[read / 2].balance, transfer.balance);
+    						}
+
+    						read++;
+    					}
+    				}
+
+    				assertEquals(2 * marshallables.length, read);
+    				assertEquals(0, context.available());
+    			}
+    		}
+    	}
+    }
+
+    @Test
+    @DisplayName("incremental unmarshalling supports plain reads between the try methods")
+    public void incrementalUnmarshallingSupportsPlainReadsBetweenTries() throws IOException {
+    	var first = new MyMarshallable("Albert", "Einstein", 1879);
+    	var second = new MyMarshallable("Marie", "Curie", 1867);
+
+    	var baos = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(baos)) {
+    		context.writeInt(42);
+    		first.into(context);
+    		context.writeInt(43);
+    		second.into(context);
+    	}
+
+    	byte[] bytes = baos.toByteArray();
+    	int endOfFirst = 4 + first.size();
+
+    	try (var context = UnmarshallingContexts.incremental()) {
+    		context.feed(ByteBuffer.wrap(bytes, 0, 6));
+    		// the header is read with a plain read and is not read again when the object is attempted again
+    		assertEquals(42, context.readInt());
+    		assertNull(context.tryRead(MyMarshallable::new));
+    		context.feed(ByteBuffer.wrap(bytes, 6, endOfFirst + 2 - 6));
+    		assertEquals(first, context.tryRead(MyMarshallable::new));
+    		// a plain read beyond the bytes fed so far fails without consuming bytes and without hindering the next try
+    		assertThrows(IOException.class, context::readInt);
+    		context.feed(ByteBuffer.wrap(bytes, endOfFirst + 2, bytes.length - endOfFirst - 2));
+    		assertEquals(43, context.readInt());
+    		assertEquals(second, context.tryRead(MyMarshallable::new));
+    		assertEquals(0, context.available());
+    	}
+    }
+
+    @Test
+    @DisplayName("incremental unmarshalling waits for more bytes even if the unmarshaller catches or wraps their absence")
+    public void incrementalUnmarshallingWaitsEvenIfUnmarshallersHideMissingBytes() throws IOException {
+    	var expected = new MyMarshallable("Albert", "Einstein", 1879);
+    	var point = new Point(13, 17);
+    	var registry = MarshallerRegistries.empty().withMarshaller(new PointMarshaller()).withUnmarshaller(new AbstractObjectUnmarshaller<>(Point.class) {
+
+    		@Override
+    		public Point read(UnmarshallingContext context) {
+    			try {
+    				return new Point(context.readCompactInt(), context.readCompactInt());
+    			}
+    			catch (IOException e) {
+    				throw new UncheckedIOException(e);
+    			}
+    		}
+    	});
+
+    	var baos = new ByteArrayOutputStream();
+    	try (var context = MarshallingContexts.of(baos)) {
+    		context.setMarshallerRegistry(registry);
+    		expected.into(context);
+    		context.writeObject(Point.class, point);
+    	}
+
+    	byte[] bytes = baos.toByteArray();
+
+    	try (var context = UnmarshallingContexts.incremental()) {
+    		context.setMarshallerRegistry(registry);
+    		MyMarshallable actual = null;
+    		Point actualPoint = null;
+
+    		// bytes are fed one at a time, so that the end of the bytes falls everywhere
+    		for (byte b: bytes) {
+    			context.feed(ByteBuffer.wrap(new byte[] { b }));
+
+    			if (actual == null) {
+    				// the surname and the year are optional: the former uses the end of the input idiom,
+    				// the latter gives up at any error
+    				actual = context.tryRead(c -> {
+    					String name = c.readStringShared(), surname;
+    					int year;
+
+    					try {
+    						surname = c.readStringShared();
+    					}
+    					catch (EOFException e) {
+    						surname = "";
+    					}
+
+    					try {
+    						year = c.readCompactInt();
+    					}
+    					catch (IOException e) {
+    						year = -1;
+    					}
+
+    					return new MyMarshallable(name, surname, year);
+    				});
+    			}
+    			else
+    				actualPoint = context.tryReadObject(Point.class);
+    		}
+
+    		assertEquals(expected, actual);
+    		assertEquals(point, actualPoint);
+    	}
+    }
+}